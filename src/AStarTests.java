@@ -1,8 +1,16 @@
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AStarTests {
@@ -60,4 +68,315 @@ public class AStarTests {
         assertEquals(2, entities.size());
         assertTrue(entities.stream().anyMatch("test 0 0 0"::equals));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGridAStarMatchesAStar() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 2000; trial++) {
+            int rows = 2 + random.nextInt(20);
+            int cols = 2 + random.nextInt(20);
+            boolean[] blocked = new boolean[rows * cols];
+            for (int i = 0; i < blocked.length; i++) {
+                blocked[i] = random.nextInt(3) == 0;
+            }
+            Point start = new Point(random.nextInt(cols), random.nextInt(rows));
+            Point end = new Point(random.nextInt(cols), random.nextInt(rows));
+            Predicate<Point> canPassThrough = p -> p.x >= 0 && p.y >= 0 && p.x < cols && p.y < rows && !blocked[p.y * cols + p.x];
+
+            List<Point> expected = new AStarPathingStrategy().computePath(start, end, canPassThrough, Point::adjacentTo, PathingStrategy.CARDINAL_NEIGHBORS);
+            GridAStarPathingStrategy grid = new GridAStarPathingStrategy(rows, cols);
+            int step = grid.firstStep(start, end, (x, y) -> !blocked[y * cols + x]);
+
+            assertEquals(expected, grid.computePath(start, end, canPassThrough, Point::adjacentTo, PathingStrategy.CARDINAL_NEIGHBORS));
+            assertEquals(expected.isEmpty() ? null : expected.getFirst(), step == GridAStarPathingStrategy.NO_STEP ? null : grid.toPoint(step));
+        }
+    }
+
+    @Test
+    public void testPlannedPathReuse() {
+        World world = new World(3, 10);
+        PlannedPath plannedPath = new PlannedPath();
+        Point destination = new Point(9, 1);
+        Point position = new Point(0, 1);
+        CellPredicate canPassThrough = (x, y) -> !world.isOccupied(new Point(x, y));
+
+        for (int i = 0; i < 4; i++) {
+            position = plannedPath.nextStep(world, position, destination, canPassThrough);
+        }
+        assertEquals(new Point(4, 1), position);
+        assertEquals(1, plannedPath.getPlanCount());
+
+        // Blocking the next step forces a detour
+        world.addEntity(new Water("", new Point(5, 1), List.of()));
+        position = plannedPath.nextStep(world, position, destination, canPassThrough);
+        assertEquals(2, plannedPath.getPlanCount());
+        assertEquals(1, position.manhattanDistanceTo(new Point(4, 1)));
+        assertTrue(position.y != 1);
+    }
+
+    @Test
+    public void testJumpPointPathing() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 2000; trial++) {
+            int rows = 2 + random.nextInt(20);
+            int cols = 2 + random.nextInt(20);
+            boolean[] blocked = new boolean[rows * cols];
+            for (int i = 0; i < blocked.length; i++) {
+                blocked[i] = random.nextInt(4) == 0;
+            }
+            Point start = new Point(random.nextInt(cols), random.nextInt(rows));
+            Point end = new Point(random.nextInt(cols), random.nextInt(rows));
+            Predicate<Point> canPassThrough = p -> p.x >= 0 && p.y >= 0 && p.x < cols && p.y < rows && !blocked[p.y * cols + p.x];
+
+            List<Point> aStarPath = new AStarPathingStrategy().computePath(start, end, canPassThrough, Point::adjacentTo, PathingStrategy.CARDINAL_NEIGHBORS);
+            List<Point> jumpPointPath = new JumpPointPathingStrategy().computePath(start, end, canPassThrough, Point::adjacentTo, PathingStrategy.CARDINAL_NEIGHBORS);
+
+            assertEquals(aStarPath.isEmpty(), jumpPointPath.isEmpty());
+            assertTrue(jumpPointPath.size() <= aStarPath.size());
+            Point previous = start;
+            for (Point step : jumpPointPath) {
+                assertTrue(step.adjacentTo(previous) && canPassThrough.test(step));
+                previous = step;
+            }
+            assertTrue(jumpPointPath.isEmpty() || previous.adjacentTo(end));
+        }
+    }
+
+    @Test
+    public void testHierarchicalPathing() {
+        World world = new World(48, 48);
+        for (int y = 0; y < 47; y++) {
+            world.addEntity(new Water("", new Point(20, y), List.of()));
+        }
+        HierarchicalPathingStrategy pathfinder = world.getHierarchicalPathfinder(Passability.OPEN);
+        Point start = new Point(5, 5);
+        Point end = new Point(35, 5);
+
+        // Around the end of the wall
+        assertEquals(2 * 42 + 30 - 1, followPath(world, pathfinder, start, end));
+
+        // Through a gap opened after the clusters were built; entrances make the path only near-optimal
+        world.removeEntityAt(new Point(20, 5));
+        int length = followPath(world, pathfinder, start, end);
+        assertTrue(length >= 30 - 1 && length < 2 * 30);
+    }
+
+    @Test
+    public void testConnectivityIndex() {
+        World world = new World(5, 5);
+        for (int y = 0; y < 5; y++) {
+            world.addEntity(new Water("", new Point(2, y), List.of()));
+        }
+        ConnectivityIndex connectivity = world.getConnectivityIndex(Passability.OPEN);
+        Point start = new Point(0, 2);
+        Point target = new Point(4, 2);
+        assertFalse(connectivity.canReach(start, target));
+
+        world.removeEntityAt(new Point(2, 4));
+        assertTrue(connectivity.canReach(start, target));
+
+        world.addEntity(new Water("", new Point(2, 4), List.of()));
+        assertFalse(connectivity.canReach(start, target));
+        assertNotEquals(connectivity.componentAt(1, 0), connectivity.componentAt(3, 4));
+    }
+
+    @Test
+    public void testConnectivityIndexReusesLabels() {
+        World world = new World(1, 20);
+        ConnectivityIndex connectivity = world.getConnectivityIndex(Passability.OPEN);
+        assertTrue(connectivity.canReach(new Point(0, 0), new Point(19, 0)));
+
+        // Every block splits the corridor and every unblock merges it again
+        for (int i = 0; i < 1000; i++) {
+            Point gate = new Point(1 + i % 18, 0);
+            world.addEntity(new Water("", gate, List.of()));
+            assertFalse(connectivity.canReach(new Point(0, 0), new Point(19, 0)));
+            world.removeEntityAt(gate);
+            assertTrue(connectivity.canReach(new Point(0, 0), new Point(19, 0)));
+        }
+        assertTrue(connectivity.getLabelCount() <= 2);
+    }
+
+    @Test
+    public void testLargeWorldPathing() {
+        // The shared search only allocates state for the area it covers
+        World large = new World(20000, 20000);
+        Fairy fairy = new Fairy("", new Point(10000, 10000), List.of(), 1, 1);
+        large.addEntity(fairy);
+        for (int y = 9996; y < 10004; y++) {
+            large.addEntity(new Water("", new Point(10002, y), List.of()));
+        }
+        Point end = new Point(10005, 10003);
+        assertEquals(new Point(10000, 10001), fairy.getPlannedPath().nextPosition(large, fairy, Fairy.PASSABILITY, end));
+
+        // Worlds whose locations don't fit in an int index fall back to searching over points
+        World huge = new World(50000, 50000);
+        Fairy other = new Fairy("", new Point(25000, 25000), List.of(), 1, 1);
+        assertNull(huge.getPathfinder());
+        assertInstanceOf(AStarPathingStrategy.class, huge.getPathingStrategy(Fairy.class));
+        assertEquals(new Point(25001, 25000), other.getPlannedPath().nextPosition(huge, other, Fairy.PASSABILITY, new Point(25003, 25000)));
+    }
+
+    @Test
+    public void testTimeSlicedPathing() {
+        World world = new World(48, 48);
+        for (int y = 0; y < 47; y++) {
+            world.addEntity(new Water("", new Point(20, y), List.of()));
+        }
+        world.setPathingNodeBudget(100);
+        PlannedPath plannedPath = new PlannedPath();
+        CellPredicate canPassThrough = (x, y) -> Passability.OPEN.canPassThrough(world, x, y);
+        Point position = new Point(5, 5);
+        Point end = new Point(35, 5);
+
+        int frames = 0;
+        int length = 0;
+        while (!position.adjacentTo(end)) {
+            world.startPathingFrame();
+            frames++;
+            Point next = plannedPath.nextStep(world, position, end, canPassThrough);
+            assertTrue(world.getPathingNodesLeft() >= 0);
+            if (!next.equals(position)) {
+                assertTrue(next.adjacentTo(position) && canPassThrough.test(next.x, next.y));
+                position = next;
+                length++;
+            }
+        }
+
+        // The search is spread over several frames, then followed one step per frame
+        assertEquals(2 * 42 + 30 - 1, length);
+        assertTrue(frames > length + 1);
+        assertEquals(1, plannedPath.getPlanCount());
+    }
+
+    @Test
+    public void testPathPrecomputer() {
+        Random random = new Random(7);
+        World world = new World(40, 40);
+        List<Fairy> fairies = new ArrayList<>();
+        for (int y = 0; y < 40; y++) {
+            for (int x = 0; x < 40; x++) {
+                double roll = random.nextDouble();
+                Point position = new Point(x, y);
+                if (roll < 0.2) {
+                    world.addEntity(new Water("", position, List.of()));
+                } else if (roll < 0.21) {
+                    world.addEntity(new Stump("", position, List.of()));
+                } else if (roll < 0.24) {
+                    Fairy fairy = new Fairy("", position, List.of(), 1, 1);
+                    world.addEntity(fairy);
+                    fairies.add(fairy);
+                }
+            }
+        }
+        new PathPrecomputer().precompute(world, fairies);
+
+        // Nothing moved since the snapshot, so every precomputed first step is the one a serial search finds
+        CellPredicate canPassThrough = (x, y) -> Passability.OPEN.canPassThrough(world, x, y);
+        int planned = 0;
+        for (Fairy fairy : fairies) {
+            Point destination = fairy.peekDestination(world);
+            if (destination == null) {
+                continue;
+            }
+            int expected = world.getPathfinder().firstStep(fairy.getPosition(), destination, canPassThrough);
+            long plans = fairy.getPlannedPath().getPlanCount();
+            Point step = fairy.getPlannedPath().nextStep(world, fairy.getPosition(), destination, canPassThrough);
+            assertEquals(plans, fairy.getPlannedPath().getPlanCount());
+            assertEquals(expected == GridAStarPathingStrategy.NO_STEP ? fairy.getPosition() : world.getPathfinder().toPoint(expected), step);
+            planned += (int) plans;
+        }
+        assertTrue(planned > 0);
+    }
+
+    @Test
+    public void testCellNeighborsOverload() {
+        World world = new World(12, 12);
+        for (int y = 0; y < 10; y++) {
+            world.addEntity(new Water("", new Point(6, y), List.of()));
+        }
+        Point start = new Point(2, 2);
+        Point end = new Point(10, 2);
+        Predicate<Point> canPassThrough = point -> Passability.OPEN.canPassThrough(world, point);
+        CellPredicate canPassThroughCell = (x, y) -> Passability.OPEN.canPassThrough(world, x, y);
+
+        for (PathingStrategy strategy : List.of(world.getPathfinder(), new JumpPointPathingStrategy(), new AStarPathingStrategy())) {
+            List<Point> expected = strategy.computePath(start, end, canPassThrough, Point::adjacentTo, PathingStrategy.CARDINAL_NEIGHBORS);
+            assertEquals(expected, strategy.computePath(start, end, canPassThroughCell, Point::adjacentTo, PathingStrategy.CARDINAL_NEIGHBOR_CELLS));
+        }
+    }
+
+    @Test
+    public void testLandmarkHeuristic() {
+        World world = new World(48, 48);
+        for (int y = 0; y < 47; y++) {
+            world.addEntity(new Water("", new Point(20, y), List.of()));
+        }
+        LandmarkHeuristic landmarks = new LandmarkHeuristic(world, 4, Runnable::run);
+        world.addOccupancyListener(landmarks);
+        GridAStarPathingStrategy pathfinder = new GridAStarPathingStrategy(48, 48);
+        pathfinder.setLandmarkHeuristic(landmarks);
+        Point start = new Point(5, 5);
+        Point end = new Point(35, 5);
+
+        assertEquals(2 * 42 + 30 - 1, followPath(world, pathfinder, start, end));
+
+        // Opening a gap in the wall outdates the tables; the rebuilt ones must not overestimate the shorter path
+        world.removeEntityAt(new Point(20, 5));
+        assertEquals(30 - 1, followPath(world, pathfinder, start, end));
+        assertTrue(landmarks.getTables() != null);
+    }
+
+    @Test
+    public void testCooperativePathfinder() {
+        World world = new World(1, 6);
+        Fairy fairy = new Fairy("", new Point(0, 0), List.of(), 1, 1);
+        Fairy other = new Fairy("", new Point(5, 0), List.of(), 1, 1);
+        world.addEntity(fairy);
+        ReservationTable reservations = world.getReservationTable();
+        CooperativePathfinder pathfinder = world.getCooperativePathfinder();
+        Point end = new Point(5, 0);
+
+        // Another mover holds the middle of the corridor during the second step, so the fairy waits a step
+        reservations.reserve(other, 2, 1, 2);
+        assertArrayEquals(new int[]{1, 1, 2, 3, 4}, pathfinder.plan(fairy, Fairy.PASSABILITY, fairy.getPosition(), end));
+        assertFalse(reservations.isFree(2, 2, 3, other));
+        assertTrue(reservations.isFree(2, 1, 2, other));
+
+        // A mover without reservations stays put for the window, so the fairy only gets next to it
+        world.addEntity(other);
+        world.moveEntity(new EventScheduler(), other, new Point(3, 0));
+        reservations.release(other);
+        assertArrayEquals(new int[]{1, 2}, pathfinder.plan(fairy, Fairy.PASSABILITY, fairy.getPosition(), end));
+
+        // Once it reserves its way out, the fairy can follow
+        reservations.reserve(other, 3, 0, 1);
+        assertArrayEquals(new int[]{1, 2, 3, 4}, pathfinder.plan(fairy, Fairy.PASSABILITY, fairy.getPosition(), end));
+
+        // Reservations are dropped when they end, and all of a mover's when it is removed
+        reservations.reserve(other, 4, 0, 1);
+        reservations.advanceTo(1);
+        assertTrue(reservations.isFree(4, 0, 1, fairy));
+        reservations.reserve(other, 2, 1, 6);
+        world.removeEntity(new EventScheduler(), other);
+        assertTrue(reservations.isFree(2, 1, 6, fairy));
+        assertArrayEquals(new int[]{1, 2, 3, 4}, pathfinder.plan(fairy, Fairy.PASSABILITY, fairy.getPosition(), end));
+    }
+
+    /** Follows a path leg by leg and returns its length, checking every step. */
+    private static int followPath(World world, PathingStrategy strategy, Point start, Point end) {
+        Predicate<Point> canPassThrough = point -> Passability.OPEN.canPassThrough(world, point);
+        Point current = start;
+        int length = 0;
+        List<Point> leg;
+        while (!(leg = strategy.computePath(current, end, canPassThrough, Point::adjacentTo, PathingStrategy.CARDINAL_NEIGHBORS)).isEmpty()) {
+            for (Point step : leg) {
+                assertTrue(step.adjacentTo(current) && canPassThrough.test(step));
+                current = step;
+                length++;
+            }
+        }
+        assertTrue(current.adjacentTo(end));
+        return length;
+    }
+}
@@ -3,12 +3,30 @@ import processing.core.PImage;
 import java.util.List;
 
 public abstract class Actions extends Entity{
+    /** Tolerance used to treat two scheduler timestamps as the same time. */
+    public static final double TIME_EPSILON = 1e-9;
+
     /** Positive (non-zero) time delay between the entity's animations. */
     private double animationPeriod;
 
     /** Positive (non-zero) time delay between the entity's behaviors. */
     private double behaviorPeriod;
 
+    /** Scheduler to resume behaviors with after 'park', or null while the entity isn't parked. */
+    private EventScheduler parkedScheduler;
+    private World parkedWorld;
+    private ImageLibrary parkedImageLibrary;
+
+    /** Time of the behavior that parked the entity. */
+    private double parkedAt;
+
+    /** Scheduler whose time drives the image index, or null while animations are scheduled as events. */
+    private EventScheduler animationClock;
+
+    /** Time at which the image index was 'animationBaseIndex'. */
+    private double animationStart;
+    private int animationBaseIndex;
+
     public Actions(String id, Point position, List<PImage> images, double animationPeriod, double behaviorPeriod){
         super(id, position, images);
         this.animationPeriod = animationPeriod;
@@ -20,11 +38,89 @@ public abstract class Actions extends Entity{
     public abstract void executeBehavior(World world, ImageLibrary imageLibrary, EventScheduler scheduler);
 
     public void scheduleAnimation(EventScheduler scheduler, World world, ImageLibrary imageLibrary) {
-        scheduler.scheduleEvent(this, new Animation(this, 0), animationPeriod);
+        if (scheduler.isLazyAnimation()) {
+            animationBaseIndex = super.getImageIndex();
+            animationStart = scheduler.getCurrentTime();
+            animationClock = scheduler;
+        } else {
+            scheduler.scheduleAnimation(this, 0, animationPeriod);
+        }
+    }
+
+    /** Returns 'true' if the image index is computed from the scheduler's time instead of animation events. */
+    public boolean isAnimationLazy() {
+        return animationClock != null;
+    }
+
+    /**
+     * With lazy animation, the image index is the number of animation periods that have passed,
+     * which is the number of animation events that would have run by now.
+     */
+    @Override
+    public int getImageIndex() {
+        if (animationClock == null) {
+            return super.getImageIndex();
+        }
+        double periods = (animationClock.getCurrentTime() - animationStart) / animationPeriod;
+        return animationBaseIndex + (int) Math.max(0, Math.floor(periods + TIME_EPSILON));
+    }
+
+    @Override
+    public void setImageIndex(int index) {
+        super.setImageIndex(index);
+        if (animationClock != null) {
+            animationBaseIndex = index;
+            animationStart = animationClock.getCurrentTime();
+        }
+    }
+
+    /** Returns the time until a lazy animation reaches the given image index, or 0 if it already has. */
+    public double getTimeUntilImageIndex(int index) {
+        if (animationClock == null || getImageIndex() >= index) {
+            return 0;
+        }
+        double reachedAt = animationStart + (index - animationBaseIndex) * animationPeriod;
+        return Math.max(0, reachedAt - animationClock.getCurrentTime());
     }
 
     public void scheduleBehavior(EventScheduler scheduler, World world, ImageLibrary imageLibrary) {
-        scheduler.scheduleEvent(this, new Behavior(this, world, imageLibrary), behaviorPeriod);
+        scheduler.scheduleBehavior(this, world, imageLibrary, behaviorPeriod);
+    }
+
+    /**
+     * Stops the entity's behaviors without scheduling the next one.
+     * Used instead of 'scheduleBehavior' by entities that would only poll for a state change;
+     * whatever changes that state calls 'wake' to resume them.
+     */
+    public void park(EventScheduler scheduler, World world, ImageLibrary imageLibrary) {
+        parkedScheduler = scheduler;
+        parkedWorld = world;
+        parkedImageLibrary = imageLibrary;
+        parkedAt = scheduler.getCurrentTime();
+    }
+
+    /**
+     * Resumes the behaviors of a parked entity that is still in its world.
+     * The next behavior runs when it would have if the entity had kept polling every behavior period.
+     */
+    public void wake() {
+        if (parkedScheduler == null) {
+            return;
+        }
+
+        EventScheduler scheduler = parkedScheduler;
+        World world = parkedWorld;
+        ImageLibrary imageLibrary = parkedImageLibrary;
+        parkedScheduler = null;
+        parkedWorld = null;
+        parkedImageLibrary = null;
+
+        if (world.inBounds(getPosition()) && world.getOccupancyCell(getPosition()) == this) {
+            double elapsed = scheduler.getCurrentTime() - parkedAt;
+            double periods = Math.max(1, Math.ceil(elapsed / behaviorPeriod - TIME_EPSILON));
+            double afterPeriod = Math.max(0, parkedAt + periods * behaviorPeriod - scheduler.getCurrentTime());
+            scheduler.scheduleBehavior(this, world, imageLibrary, afterPeriod);
+        }
     }
 
     public double getAnimationPeriod() {return animationPeriod; }
@@ -11,7 +11,7 @@ public class Animation extends Action{
         getEntity().updateImage();
 
         if (repeatCount != 1) {
-            scheduler.scheduleEvent(getEntity(), new Animation(getEntity(), Math.max(this.repeatCount - 1, 0)), getEntity().getAnimationPeriod());
+            scheduler.scheduleAnimation(getEntity(), Math.max(this.repeatCount - 1, 0), getEntity().getAnimationPeriod());
         }
     }
 }
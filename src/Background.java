@@ -26,4 +26,22 @@ public final class Background {
     public String getId() {
         return id;
     }
+
+    /** Backgrounds are equal when they share an id and draw the same image from the same image list. */
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof Background background) {
+            return imageIndex == background.imageIndex && id.equals(background.id) && images == background.images;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        hash = hash * 31 + id.hashCode();
+        hash = hash * 31 + System.identityHashCode(images);
+        hash = hash * 31 + imageIndex;
+        return hash;
+    }
 }
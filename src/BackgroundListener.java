@@ -0,0 +1,5 @@
+/** Receives notifications of changes to a world's background tiles. */
+public interface BackgroundListener {
+    /** Called after the background tile at the given location changed. */
+    void backgroundChanged(int x, int y);
+}
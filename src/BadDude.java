@@ -2,10 +2,8 @@ import processing.core.PImage;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.function.BiPredicate;
-import java.util.function.Predicate;
 
-public class BadDude extends Actions implements Movable, Transformable {
+public class BadDude extends Actions implements Movable, Transformable, PathPrecomputable {
 
     public static final String BAD_DUDE_KEY = "bad_dude";
 
@@ -13,7 +11,11 @@ public class BadDude extends Actions implements Movable, Transformable {
 
     private int dudesKilled;
 
-    private static final PathingStrategy pathingStrategy = new AStarPathingStrategy();
+    /** The locations this entity can move through. */
+    public static final Passability PASSABILITY = Passability.OPEN_OR_STUMP;
+
+    /** Path toward the current destination, reused while it stays clear. */
+    private final PlannedPath plannedPath = new PlannedPath();
 
     public BadDude(String id, Point position, List<PImage> images, double animationPeriod, double behaviorPeriod, boolean hasExplosive) {
         super(id, position, images, animationPeriod, behaviorPeriod);
@@ -45,43 +47,59 @@ public class BadDude extends Actions implements Movable, Transformable {
     }
 
     public Optional<Entity> findTarget(World world) {
-        List<Class<? extends Entity>> potentialTargets;
+        return plannedPath.findTarget(world, this, targetKinds(), PASSABILITY);
+    }
 
+    /** Returns the kinds of entities this bad dude looks for. */
+    private List<Class<? extends Entity>> targetKinds() {
         if (hasExplosive) {
-            potentialTargets = List.of(House.class);
+            return List.of(House.class);
         } else {
-            potentialTargets = List.of(Dude.class);
+            return List.of(Dude.class);
         }
-        return world.findNearest(getPosition(), potentialTargets);
+    }
+
+    @Override
+    public Point peekDestination(World world) {
+        return world.findNearest(getPosition(), targetKinds(), PASSABILITY)
+                .map(Entity::getPosition)
+                .filter(position -> !getPosition().adjacentTo(position))
+                .orElse(null);
+    }
+
+    @Override
+    public Passability getPassability() {
+        return PASSABILITY;
+    }
+
+    @Override
+    public PlannedPath getPlannedPath() {
+        return plannedPath;
     }
 
     @Override
     public boolean transform(World world, ImageLibrary imageLibrary, EventScheduler scheduler) {
-         Point explodedPoint = PathingStrategy.CARDINAL_NEIGHBORS
-                .apply(getPosition())
-                .filter(world::inBounds)
-                .map(world::getOccupant)
-                 .filter(Optional::isPresent)
-                .map(Optional::get)
-                .filter(entity -> entity instanceof House)
-                .peek(x -> {
-                    Explosion explosion = new Explosion(Explosion.EXPLOSION_KEY, x.getPosition(), imageLibrary.get(Explosion.EXPLOSION_KEY));
-
-                    world.setBackgroundCell(x.getPosition(), new Background("exploded", imageLibrary.get("exploded"), 0));
-                    long unused = PathingStrategy.CARDINAL_NEIGHBORS.apply(x.getPosition()).filter(world::inBounds).peek(point -> {
-                        world.setBackgroundCell(point, new Background("road", imageLibrary.get("road"), 0));
-                    }).count();
-                    world.removeEntity(scheduler, x);
-                    world.addEntity(explosion);
-
-                    explosion.scheduleActions(scheduler, world, imageLibrary);
-
-                })
-                 .map(Entity::getPosition)
-                 .toList()
-                 .getFirst();
-
-         return true;
+        for (int direction = 0; direction < CardinalNeighbors.COUNT; direction++) {
+            int x = CardinalNeighbors.x(getPosition().x, direction);
+            int y = CardinalNeighbors.y(getPosition().y, direction);
+            if (!(world.getSlotEntity(world.occupantSlotAt(x, y)) instanceof House house)) {
+                continue;
+            }
+            Explosion explosion = new Explosion(Explosion.EXPLOSION_KEY, house.getPosition(), imageLibrary.get(Explosion.EXPLOSION_KEY));
+
+            world.setBackgroundCell(house.getPosition(), new Background("exploded", imageLibrary.get("exploded"), 0));
+            CardinalNeighbors.forEach(x, y, (roadX, roadY) -> {
+                if (world.inBounds(roadX, roadY)) {
+                    world.setBackgroundCell(new Point(roadX, roadY), new Background("road", imageLibrary.get("road"), 0));
+                }
+            });
+            world.removeEntity(scheduler, house);
+            world.addEntity(explosion);
+
+            explosion.scheduleActions(scheduler, world, imageLibrary);
+        }
+
+        return true;
     }
 
     @Override
@@ -106,10 +124,6 @@ public class BadDude extends Actions implements Movable, Transformable {
 
     @Override
     public Point nextPosition(World world, Point destination) {
-        Predicate<Point> canPassThrough = point -> world.inBounds(point) && (!world.isOccupied(point) || (world.getOccupant(point).get() instanceof Stump));
-        BiPredicate<Point, Point> withinReach = Point::adjacentTo;
-        List<Point> path = pathingStrategy.computePath(getPosition(), destination, canPassThrough, withinReach, PathingStrategy.CARDINAL_NEIGHBORS);
-
-        return !path.isEmpty() ? path.getFirst() : getPosition();
+        return plannedPath.nextPosition(world, this, PASSABILITY, destination);
     }
 }
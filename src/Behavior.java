@@ -19,4 +19,8 @@ public class Behavior extends Action {
         getEntity().executeBehavior(world, imageLibrary, scheduler);
 
     }
+
+    public World getWorld() {
+        return world;
+    }
 }
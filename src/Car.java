@@ -2,10 +2,8 @@ import processing.core.PImage;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.function.BiPredicate;
-import java.util.function.Predicate;
 
-public class Car extends Actions implements Movable, Transformable{
+public class Car extends Actions implements Movable, Transformable, PathPrecomputable {
 
     public static final String CAR_KEY = "car";
 
@@ -15,7 +13,11 @@ public class Car extends Actions implements Movable, Transformable{
 
     private int cooldown;
 
-    private static final PathingStrategy pathingStrategy = new AStarPathingStrategy();
+    /** The locations this entity can move through. */
+    public static final Passability PASSABILITY = Passability.OPEN_OR_FAIRY;
+
+    /** Path toward the current destination, reused while it stays clear. */
+    private final PlannedPath plannedPath = new PlannedPath();
 
     public Car(String id, Point position, List<PImage> images, double animationPeriod, double behaviorPeriod) {
         super(id, position, images, animationPeriod, behaviorPeriod);
@@ -46,17 +48,40 @@ public class Car extends Actions implements Movable, Transformable{
     }
 
     public Optional<Entity> findTarget(World world) {
-        List<Class<? extends Entity>> potentialTargets;
+        List<Class<? extends Entity>> potentialTargets = targetKinds();
+        if (!full && cooldown > 0) {
+            cooldown--;
+        }
+        return plannedPath.findTarget(world, this, potentialTargets, PASSABILITY);
+    }
 
+    /** Returns the kinds of entities this car looks for. */
+    private List<Class<? extends Entity>> targetKinds() {
         if (full) {
-            potentialTargets = List.of(BadDude.class);
+            return List.of(BadDude.class);
         } else if (cooldown > 0) {
-            cooldown--;
-            potentialTargets = List.of(House.class);
+            return List.of(House.class);
         } else {
-            potentialTargets = List.of(Dude.class);
+            return List.of(Dude.class);
         }
-        return world.findNearest(getPosition(), potentialTargets);
+    }
+
+    @Override
+    public Point peekDestination(World world) {
+        return world.findNearest(getPosition(), targetKinds(), PASSABILITY)
+                .map(Entity::getPosition)
+                .filter(position -> !getPosition().adjacentTo(position))
+                .orElse(null);
+    }
+
+    @Override
+    public Passability getPassability() {
+        return PASSABILITY;
+    }
+
+    @Override
+    public PlannedPath getPlannedPath() {
+        return plannedPath;
     }
 
     @Override
@@ -77,16 +102,18 @@ public class Car extends Actions implements Movable, Transformable{
 
     @Override
     public boolean moveTo(World world, Entity target, EventScheduler scheduler) {
-        List<Point> clearPositions = PathingStrategy.CARDINAL_NEIGHBORS.apply(this.getPosition()).filter(point -> world.inBounds(point) && (!world.isOccupied(point) || (world.getOccupant(point).get() instanceof Stump))).toList();
         if (getPosition().adjacentTo(target.getPosition())) {
             if (target instanceof Dude && !full) {
                 full = true;
                 passenger = (Dude) target;
                 world.removeEntity(scheduler, target);
                 return false;
-            } else if (target instanceof Mushroom && full && !clearPositions.isEmpty()) {
-                passenger.setPosition(clearPositions.getFirst());
-                return true;
+            } else if (target instanceof Mushroom && full) {
+                Point clearPosition = firstClearNeighbor(world);
+                if (clearPosition != null) {
+                    passenger.setPosition(clearPosition);
+                    return true;
+                }
             }
         } else {
             Point nextPos = nextPosition(world, target.getPosition());
@@ -100,12 +127,20 @@ public class Car extends Actions implements Movable, Transformable{
         return false;
     }
 
+    /** Returns the first neighboring location, in cardinal order, that the passenger can be dropped at, or null. */
+    private Point firstClearNeighbor(World world) {
+        for (int direction = 0; direction < CardinalNeighbors.COUNT; direction++) {
+            int x = CardinalNeighbors.x(getPosition().x, direction);
+            int y = CardinalNeighbors.y(getPosition().y, direction);
+            if (world.inBounds(x, y) && Dude.PASSABILITY.allows(world.getSlotEntity(world.occupantSlotAt(x, y)))) {
+                return new Point(x, y);
+            }
+        }
+        return null;
+    }
+
     @Override
     public Point nextPosition(World world, Point destination) {
-        Predicate<Point> canPassThrough = point -> world.inBounds(point) && (!world.isOccupied(point) || (world.getOccupant(point).get() instanceof Fairy));
-        BiPredicate<Point, Point> withinReach = Point::adjacentTo;
-        List<Point> path = pathingStrategy.computePath(getPosition(), destination, canPassThrough, withinReach, PathingStrategy.CARDINAL_NEIGHBORS);
-
-        return !path.isEmpty() ? path.getFirst() : getPosition();
+        return plannedPath.nextPosition(world, this, PASSABILITY, destination);
     }
 }
\ No newline at end of file
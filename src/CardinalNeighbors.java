@@ -0,0 +1,31 @@
+/**
+ * Offsets of the four cardinal neighbors of a grid location, in 'PathingStrategy.CARDINAL_NEIGHBORS' order:
+ * up, down, left, right. Directions are numbered 0 to 'COUNT' - 1 in that order.
+ */
+public final class CardinalNeighbors {
+    /** Number of cardinal directions. */
+    public static final int COUNT = 4;
+
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+
+    private CardinalNeighbors() {
+    }
+
+    /** Returns the x coordinate of the neighbor in the given direction. */
+    public static int x(int x, int direction) {
+        return x + DX[direction];
+    }
+
+    /** Returns the y coordinate of the neighbor in the given direction. */
+    public static int y(int y, int direction) {
+        return y + DY[direction];
+    }
+
+    /** Calls 'action' with the coordinates of each cardinal neighbor, in or out of bounds. Does not allocate. */
+    public static void forEach(int x, int y, IntBinaryConsumer action) {
+        for (int direction = 0; direction < COUNT; direction++) {
+            action.accept(x + DX[direction], y + DY[direction]);
+        }
+    }
+}
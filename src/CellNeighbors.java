@@ -0,0 +1,6 @@
+/** Visits the neighbors of grid coordinates without allocating, for use in place of a stream of points. */
+@FunctionalInterface
+public interface CellNeighbors {
+    /** Calls 'action' with the coordinates of every potential neighbor of the given ones, in or out of bounds. */
+    void forEachNeighbor(int x, int y, IntBinaryConsumer action);
+}
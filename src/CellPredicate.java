@@ -0,0 +1,5 @@
+/** A predicate of grid coordinates, used where testing a 'Point' would allocate one. */
+@FunctionalInterface
+public interface CellPredicate {
+    boolean test(int x, int y);
+}
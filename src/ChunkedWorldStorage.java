@@ -0,0 +1,206 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores a world as square chunks that are only allocated once they differ from a uniform background.
+ * Chunks with a single background tile and no entities share one read-only instance per tile id,
+ * and writable chunks are released back to that shared instance when they become uniform and empty again.
+ */
+public final class ChunkedWorldStorage implements WorldStorage {
+    /** Width and height, in tiles, of a single chunk. Must be a power of two. */
+    public static final int CHUNK_SIZE = 64;
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int CHUNK_AREA = CHUNK_SIZE * CHUNK_SIZE;
+
+    /** World height. */
+    private final int numRows;
+
+    /** World width. */
+    private final int numCols;
+
+    /** Chunk grid width. */
+    private final int chunkCols;
+
+    /** Chunk grid, row-major. A null element is the shared chunk of 'World.NO_TILE'. */
+    private final Chunk[] chunks;
+
+    /** Shared read-only chunks, keyed by their tile id. */
+    private final Map<Short, Chunk> uniformChunks;
+
+    public ChunkedWorldStorage(int numRows, int numCols) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.chunkCols = (numCols + CHUNK_MASK) >> CHUNK_SHIFT;
+        int chunkRows = (numRows + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunks = new Chunk[chunkRows * chunkCols];
+        this.uniformChunks = new HashMap<>();
+    }
+
+    @Override
+    public int getSlot(int x, int y) {
+        Chunk chunk = chunks[chunkIndex(x, y)];
+        return chunk == null || chunk.slots == null ? World.EMPTY_SLOT : chunk.slots[cellIndex(x, y)];
+    }
+
+    @Override
+    public void setSlot(int x, int y, int slot) {
+        int index = chunkIndex(x, y);
+        Chunk chunk = chunks[index];
+        if (slot == World.EMPTY_SLOT && (chunk == null || chunk.slots == null)) {
+            return;
+        }
+
+        chunk = writable(index, x, y);
+        if (chunk.slots == null) {
+            chunk.slots = new int[CHUNK_AREA];
+        }
+
+        int cell = cellIndex(x, y);
+        int previous = chunk.slots[cell];
+        chunk.slots[cell] = slot;
+        if (previous == World.EMPTY_SLOT && slot != World.EMPTY_SLOT) {
+            chunk.entityCount++;
+        } else if (previous != World.EMPTY_SLOT && slot == World.EMPTY_SLOT) {
+            chunk.entityCount--;
+            if (chunk.entityCount == 0) {
+                chunk.slots = null;
+                releaseIfUniform(index, chunk);
+            }
+        }
+    }
+
+    @Override
+    public short getTileId(int x, int y) {
+        Chunk chunk = chunks[chunkIndex(x, y)];
+        if (chunk == null) {
+            return World.NO_TILE;
+        }
+        return chunk.tileIds == null ? chunk.baseTileId : chunk.tileIds[cellIndex(x, y)];
+    }
+
+    @Override
+    public void setTileId(int x, int y, short tileId) {
+        int index = chunkIndex(x, y);
+        if (getTileId(x, y) == tileId) {
+            return;
+        }
+
+        Chunk chunk = writable(index, x, y);
+        if (chunk.tileIds == null) {
+            chunk.tileIds = new short[CHUNK_AREA];
+            Arrays.fill(chunk.tileIds, chunk.baseTileId);
+        }
+
+        int cell = cellIndex(x, y);
+        short previous = chunk.tileIds[cell];
+        chunk.tileIds[cell] = tileId;
+        if (previous == chunk.baseTileId) {
+            chunk.differentTiles++;
+        } else if (tileId == chunk.baseTileId) {
+            chunk.differentTiles--;
+        }
+
+        // Every location now differs from the base tile; check whether they all agree on a new one
+        if (chunk.differentTiles == chunk.area) {
+            rebase(chunk, index);
+        }
+        if (chunk.differentTiles == 0) {
+            chunk.tileIds = null;
+            releaseIfUniform(index, chunk);
+        }
+    }
+
+    /** Returns the number of chunks that currently have their own storage. */
+    public int getAllocatedChunkCount() {
+        int count = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk != null && !chunk.shared) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Returns a chunk owned by this location's chunk slot, copying the shared chunk if needed. */
+    private Chunk writable(int index, int x, int y) {
+        Chunk chunk = chunks[index];
+        if (chunk == null || chunk.shared) {
+            short baseTileId = chunk == null ? World.NO_TILE : chunk.baseTileId;
+            int chunkX = x & ~CHUNK_MASK;
+            int chunkY = y & ~CHUNK_MASK;
+            int area = Math.min(CHUNK_SIZE, numCols - chunkX) * Math.min(CHUNK_SIZE, numRows - chunkY);
+            chunk = new Chunk(baseTileId, area, false);
+            chunks[index] = chunk;
+        }
+        return chunk;
+    }
+
+    /** Makes the chunk's common tile its base tile when all of its in-world locations share one. */
+    private void rebase(Chunk chunk, int index) {
+        int chunkX = (index % chunkCols) << CHUNK_SHIFT;
+        int chunkY = (index / chunkCols) << CHUNK_SHIFT;
+        int width = Math.min(CHUNK_SIZE, numCols - chunkX);
+        int height = Math.min(CHUNK_SIZE, numRows - chunkY);
+
+        short common = chunk.tileIds[0];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                if (chunk.tileIds[(row << CHUNK_SHIFT) + col] != common) {
+                    return;
+                }
+            }
+        }
+
+        chunk.baseTileId = common;
+        chunk.differentTiles = 0;
+    }
+
+    /** Replaces a uniform chunk without entities by the shared chunk of its tile. */
+    private void releaseIfUniform(int index, Chunk chunk) {
+        if (chunk.tileIds == null && chunk.slots == null) {
+            chunks[index] = chunk.baseTileId == World.NO_TILE
+                    ? null
+                    : uniformChunks.computeIfAbsent(chunk.baseTileId, tileId -> new Chunk(tileId, 0, true));
+        }
+    }
+
+    private int chunkIndex(int x, int y) {
+        return (y >> CHUNK_SHIFT) * chunkCols + (x >> CHUNK_SHIFT);
+    }
+
+    private static int cellIndex(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_SHIFT) + (x & CHUNK_MASK);
+    }
+
+    /** A square block of locations. */
+    private static final class Chunk {
+        /** Whether this chunk is a read-only instance shared between chunk slots. */
+        private final boolean shared;
+
+        /** Number of locations of this chunk that are within the world. */
+        private final int area;
+
+        /** The tile of every location when 'tileIds' is null. */
+        private short baseTileId;
+
+        /** Per-location tile ids, or null when every location has 'baseTileId'. */
+        private short[] tileIds;
+
+        /** Number of in-world locations whose tile differs from 'baseTileId'. */
+        private int differentTiles;
+
+        /** Per-location occupancy slots, or null when the chunk has no entities. */
+        private int[] slots;
+
+        /** Number of occupied locations. */
+        private int entityCount;
+
+        private Chunk(short baseTileId, int area, boolean shared) {
+            this.baseTileId = baseTileId;
+            this.area = area;
+            this.shared = shared;
+        }
+    }
+}
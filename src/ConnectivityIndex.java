@@ -0,0 +1,360 @@
+import java.util.Arrays;
+
+/**
+ * Labels the connected components of the locations a mover can pass through, so whether one location can
+ * reach another is a label comparison instead of a search.
+ * Labels follow the occupancy grid as it changes. When a location opens, the components around it are merged
+ * by relabeling all but the largest. When a location closes, its neighbors are searched in lockstep until all
+ * of them meet or only one search is still running; the pieces whose searches ran out are relabeled, so the
+ * work is proportional to the smaller side of a split.
+ * Obtain instances through 'World.getConnectivityIndex'.
+ */
+public final class ConnectivityIndex implements OccupancyListener {
+    /** Label of locations that can't be passed through. */
+    public static final int NO_COMPONENT = 0;
+
+    private final World world;
+    private final Passability passability;
+    private final int numRows;
+    private final int numCols;
+
+    /** Component label of every location, row-major. */
+    private final int[] labels;
+
+    /** Number of locations of each component, indexed by label. */
+    private int[] sizes;
+
+    /** Next label that has never been used. */
+    private int nextLabel;
+
+    /** Labels whose component has disappeared, reused before new ones. */
+    private int[] freeLabels;
+    private int freeLabelCount;
+
+    /** Whether the labels have been computed at all. */
+    private boolean built;
+
+    /** Which search of the current split visited a location, valid where 'visitStamps' equals 'visitStamp'. */
+    private final int[] visitOwners;
+    private final int[] visitStamps;
+    private int visitStamp;
+
+    /** Per-search queues of a split; each also lists every location its search visited. */
+    private final int[][] searchCells;
+    private final int[] searchHeads;
+    private final int[] searchTails;
+
+    /** Union-find parents of the searches of a split, merged when searches meet. */
+    private final int[] searchGroups;
+
+    public ConnectivityIndex(World world, Passability passability) {
+        this.world = world;
+        this.passability = passability;
+        this.numRows = world.getNumRows();
+        this.numCols = world.getNumCols();
+        this.labels = new int[numRows * numCols];
+        this.sizes = new int[16];
+        this.nextLabel = NO_COMPONENT + 1;
+        this.freeLabels = new int[16];
+        this.freeLabelCount = 0;
+        this.built = false;
+        this.visitOwners = new int[numRows * numCols];
+        this.visitStamps = new int[numRows * numCols];
+        this.searchCells = new int[CardinalNeighbors.COUNT][16];
+        this.searchHeads = new int[CardinalNeighbors.COUNT];
+        this.searchTails = new int[CardinalNeighbors.COUNT];
+        this.searchGroups = new int[CardinalNeighbors.COUNT];
+    }
+
+    /** Returns the component label of the given coordinates, or 'NO_COMPONENT'. */
+    public int componentAt(int x, int y) {
+        update();
+        return world.inBounds(x, y) ? labels[y * numCols + x] : NO_COMPONENT;
+    }
+
+    /**
+     * Returns 'true' if a mover at 'start' can get within reach (adjacent) of 'target'.
+     * Both locations are usually occupied, so their passable neighbors are compared.
+     */
+    public boolean canReach(Point start, Point target) {
+        update();
+        if (start.adjacentTo(target)) {
+            return true;
+        }
+        for (int i = -1; i < CardinalNeighbors.COUNT; i++) {
+            int startLabel = componentAt(i < 0 ? start.x : CardinalNeighbors.x(start.x, i), i < 0 ? start.y : CardinalNeighbors.y(start.y, i));
+            if (startLabel == NO_COMPONENT) {
+                continue;
+            }
+            for (int j = 0; j < CardinalNeighbors.COUNT; j++) {
+                if (componentAt(CardinalNeighbors.x(target.x, j), CardinalNeighbors.y(target.y, j)) == startLabel) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Returns the number of labels ever handed out, which is bounded by the most components that existed at once. */
+    public int getLabelCount() {
+        return nextLabel - (NO_COMPONENT + 1);
+    }
+
+    @Override
+    public void occupancyChanged(int x, int y) {
+        if (!built) {
+            return;
+        }
+        int cell = y * numCols + x;
+        boolean passable = passability.canPassThrough(world, x, y);
+        if (passable && labels[cell] == NO_COMPONENT) {
+            open(cell);
+        } else if (!passable && labels[cell] != NO_COMPONENT) {
+            close(cell);
+        }
+    }
+
+    /** Labels every component from scratch. */
+    private void update() {
+        if (built) {
+            return;
+        }
+        for (int y = 0; y < numRows; y++) {
+            for (int x = 0; x < numCols; x++) {
+                int cell = y * numCols + x;
+                if (labels[cell] == NO_COMPONENT && passability.canPassThrough(world, x, y)) {
+                    int label = newLabel();
+                    sizes[label] = relabel(cell, NO_COMPONENT, label);
+                }
+            }
+        }
+        built = true;
+    }
+
+    /** Adds a location that became passable, merging the components around it. */
+    private void open(int cell) {
+        int x = cell % numCols;
+        int y = cell / numCols;
+
+        // Keep the largest neighboring component's label
+        int largest = NO_COMPONENT;
+        for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+            int label = labelAt(CardinalNeighbors.x(x, i), CardinalNeighbors.y(y, i));
+            if (label != NO_COMPONENT && (largest == NO_COMPONENT || sizes[label] > sizes[largest])) {
+                largest = label;
+            }
+        }
+        if (largest == NO_COMPONENT) {
+            largest = newLabel();
+        }
+        labels[cell] = largest;
+        sizes[largest]++;
+
+        for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+            int nx = CardinalNeighbors.x(x, i);
+            int ny = CardinalNeighbors.y(y, i);
+            int label = labelAt(nx, ny);
+            if (label != NO_COMPONENT && label != largest) {
+                sizes[largest] += relabel(ny * numCols + nx, label, largest);
+                freeLabel(label);
+            }
+        }
+    }
+
+    /** Removes a location that became impassable, splitting its component if it was the only link. */
+    private void close(int cell) {
+        int label = labels[cell];
+        labels[cell] = NO_COMPONENT;
+        sizes[label]--;
+
+        // Start a search from each neighbor in the component
+        visitStamp++;
+        int searches = 0;
+        int x = cell % numCols;
+        int y = cell / numCols;
+        for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+            int nx = CardinalNeighbors.x(x, i);
+            int ny = CardinalNeighbors.y(y, i);
+            if (labelAt(nx, ny) == label) {
+                int neighbor = ny * numCols + nx;
+                visitOwners[neighbor] = searches;
+                visitStamps[neighbor] = visitStamp;
+                searchCells[searches][0] = neighbor;
+                searchHeads[searches] = 0;
+                searchTails[searches] = 1;
+                searchGroups[searches] = searches;
+                searches++;
+            }
+        }
+        if (searches == 0) {
+            freeLabel(label);
+        }
+        if (searches <= 1) {
+            return;
+        }
+
+        // Expand the searches in lockstep until they all meet or only one group is still growing
+        while (true) {
+            int groups = 0;
+            int growingGroups = 0;
+            for (int i = 0; i < searches; i++) {
+                if (findGroup(i) == i) {
+                    groups++;
+                    if (isGrowing(i, searches)) {
+                        growingGroups++;
+                    }
+                }
+            }
+            if (groups == 1) {
+                return;
+            }
+            if (growingGroups <= 1) {
+                break;
+            }
+            for (int i = 0; i < searches; i++) {
+                if (searchHeads[i] < searchTails[i]) {
+                    expand(i, label);
+                }
+            }
+        }
+
+        // Keep the label for the group that is still growing, or else the largest group
+        int kept = -1;
+        for (int i = 0; i < searches; i++) {
+            if (findGroup(i) != i) {
+                continue;
+            }
+            if (isGrowing(i, searches)) {
+                kept = i;
+                break;
+            }
+            if (kept < 0 || groupSize(i, searches) > groupSize(kept, searches)) {
+                kept = i;
+            }
+        }
+        for (int i = 0; i < searches; i++) {
+            if (findGroup(i) == i && i != kept) {
+                int newLabel = newLabel();
+                for (int j = 0; j < searches; j++) {
+                    if (findGroup(j) == i) {
+                        for (int k = 0; k < searchTails[j]; k++) {
+                            labels[searchCells[j][k]] = newLabel;
+                        }
+                        sizes[newLabel] += searchTails[j];
+                    }
+                }
+                sizes[label] -= sizes[newLabel];
+            }
+        }
+    }
+
+    /** Visits the neighbors of the next location of a search, merging it with any search it meets. */
+    private void expand(int search, int label) {
+        int cell = searchCells[search][searchHeads[search]++];
+        int x = cell % numCols;
+        int y = cell / numCols;
+        for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+            int nx = CardinalNeighbors.x(x, i);
+            int ny = CardinalNeighbors.y(y, i);
+            if (labelAt(nx, ny) != label) {
+                continue;
+            }
+            int neighbor = ny * numCols + nx;
+            if (visitStamps[neighbor] == visitStamp) {
+                int a = findGroup(search);
+                int b = findGroup(visitOwners[neighbor]);
+                if (a != b) {
+                    searchGroups[Math.max(a, b)] = Math.min(a, b);
+                }
+            } else {
+                visitStamps[neighbor] = visitStamp;
+                visitOwners[neighbor] = search;
+                if (searchTails[search] == searchCells[search].length) {
+                    searchCells[search] = Arrays.copyOf(searchCells[search], searchTails[search] * 2);
+                }
+                searchCells[search][searchTails[search]++] = neighbor;
+            }
+        }
+    }
+
+    private int findGroup(int search) {
+        while (searchGroups[search] != search) {
+            search = searchGroups[search];
+        }
+        return search;
+    }
+
+    /** Returns 'true' if any search of the given group still has locations to expand. */
+    private boolean isGrowing(int group, int searches) {
+        for (int i = 0; i < searches; i++) {
+            if (findGroup(i) == group && searchHeads[i] < searchTails[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int groupSize(int group, int searches) {
+        int size = 0;
+        for (int i = 0; i < searches; i++) {
+            if (findGroup(i) == group) {
+                size += searchTails[i];
+            }
+        }
+        return size;
+    }
+
+    /** Flood-fills the component containing a location from one label to another and returns its size. */
+    private int relabel(int start, int from, int to) {
+        int[] queue = new int[64];
+        int head = 0;
+        int tail = 0;
+        labels[start] = to;
+        queue[tail++] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % numCols;
+            int y = cell / numCols;
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int nx = CardinalNeighbors.x(x, i);
+                int ny = CardinalNeighbors.y(y, i);
+                if (!world.inBounds(nx, ny)) {
+                    continue;
+                }
+                int neighbor = ny * numCols + nx;
+                boolean matches = from == NO_COMPONENT
+                        ? labels[neighbor] == NO_COMPONENT && passability.canPassThrough(world, nx, ny)
+                        : labels[neighbor] == from;
+                if (matches) {
+                    labels[neighbor] = to;
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, tail * 2);
+                    }
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private int labelAt(int x, int y) {
+        return world.inBounds(x, y) ? labels[y * numCols + x] : NO_COMPONENT;
+    }
+
+    private int newLabel() {
+        if (freeLabelCount > 0) {
+            return freeLabels[--freeLabelCount];
+        }
+        if (nextLabel == sizes.length) {
+            sizes = Arrays.copyOf(sizes, nextLabel * 2);
+            freeLabels = Arrays.copyOf(freeLabels, nextLabel * 2);
+        }
+        return nextLabel++;
+    }
+
+    /** Returns the label of a component that has disappeared to the free list. */
+    private void freeLabel(int label) {
+        sizes[label] = 0;
+        freeLabels[freeLabelCount++] = label;
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Plans short paths through space and time around the reservations of other movers, in the style of windowed
+ * hierarchical cooperative A* (WHCA*).
+ * A plan first finds a route to the destination with the world's shared A* search, treating other movers as
+ * passable. It then searches space and time for the next 'WINDOW' steps along that route, where a mover may also
+ * wait in place, and reserves every location of the result. Movers that plan later avoid those reservations, so
+ * movers in a corridor yield to each other instead of repeatedly blocking each other's paths. Within the window,
+ * movers without reservations are obstacles, and a mover that can't make progress holds its location.
+ * A step is taken once per behavior period, so the n-th step of a plan made at time t holds its location from
+ * t + (n - 1) * period to t + n * period.
+ * Obtain instances through 'World.getCooperativePathfinder'.
+ */
+public final class CooperativePathfinder {
+    /** Number of steps each plan looks ahead and reserves. */
+    public static final int WINDOW = 8;
+
+    /** Number of steps of a plan followed before planning again, so reservations always reach ahead of the mover. */
+    public static final int REPLAN_STEPS = WINDOW / 2;
+
+    /** Neighbor offsets in 'PathingStrategy.CARDINAL_NEIGHBORS' order (up, down, left, right), then waiting in place. */
+    private static final int[] MOVE_DX = {0, 0, -1, 1, 0};
+    private static final int[] MOVE_DY = {-1, 1, 0, 0, 0};
+
+    private final World world;
+    private final ReservationTable reservations;
+
+    public CooperativePathfinder(World world, ReservationTable reservations) {
+        this.world = world;
+        this.reservations = reservations;
+    }
+
+    /**
+     * Replaces the mover's reservations with those of a new plan from the start toward a location adjacent to the end,
+     * and returns the plan's locations as 'y * numCols + x', not including the start; a location repeats where the
+     * mover waits. Returns null if the mover can't make progress, in which case it holds its location for the window.
+     */
+    public int[] plan(Actions mover, Passability passability, Point start, Point end) {
+        reservations.release(mover);
+        int numCols = world.getNumCols();
+        int area = world.getNumRows() * numCols;
+        int startCell = start.y * numCols + start.x;
+        double now = reservations.getTime();
+        double period = mover.getBehaviorPeriod();
+
+        // Head for where the route is after a window of steps, or for its end if it is closer
+        GridAStarPathingStrategy pathfinder = world.getPathfinder();
+        int goal = pathfinder.findGoal(start, end, (x, y) -> isOnRoute(mover, passability, x, y));
+        if (goal == GridAStarPathingStrategy.NO_STEP || goal == startCell) {
+            reservations.reserve(mover, startCell, now, now + WINDOW * period);
+            return null;
+        }
+        List<Integer> route = new ArrayList<>();
+        for (int cell = goal; cell != startCell; cell = pathfinder.previousOf(cell)) {
+            route.add(cell);
+        }
+        boolean routeEnds = route.size() <= WINDOW;
+        int waypoint = route.get(route.size() - Math.min(WINDOW, route.size()));
+        int waypointX = waypoint % numCols;
+        int waypointY = waypoint / numCols;
+
+        // Search states are 'depth * area + location', where the depth is the number of steps taken
+        Map<Long, Long> cameFrom = new HashMap<>();
+        Set<Long> closedSet = new HashSet<>();
+        Comparator<Long> byF = Comparator.comparingInt(state -> depthOf(state, area)
+                + distance(cellOf(state, area), numCols, waypointX, waypointY));
+        Queue<Long> openSet = new PriorityQueue<>(byF
+                .thenComparing(Comparator.comparingInt((Long state) -> depthOf(state, area)).reversed())
+                .thenComparing(Comparator.naturalOrder()));
+        openSet.add((long) startCell);
+
+        long best = startCell;
+        int bestDistance = distance(startCell, numCols, waypointX, waypointY);
+        while (!openSet.isEmpty()) {
+            long current = openSet.poll();
+            if (!closedSet.add(current)) {
+                continue;
+            }
+            int depth = depthOf(current, area);
+            int cell = cellOf(current, area);
+            int x = cell % numCols;
+            int y = cell / numCols;
+            int distance = Math.abs(waypointX - x) + Math.abs(waypointY - y);
+            if (depth > 0 && (cell == waypoint || routeEnds && Math.abs(end.x - x) + Math.abs(end.y - y) == 1)) {
+                best = current;
+                break;
+            }
+            // Failing that, get as close as possible, or at least hold a location rather than nothing
+            if (depth > 0 && (distance < bestDistance || distance == bestDistance && best == startCell)) {
+                best = current;
+                bestDistance = distance;
+            }
+            if (depth == WINDOW) {
+                continue;
+            }
+
+            double from = now + depth * period;
+            for (int i = 0; i < MOVE_DX.length; i++) {
+                int nx = x + MOVE_DX[i];
+                int ny = y + MOVE_DY[i];
+                if (!world.inBounds(nx, ny)) {
+                    continue;
+                }
+                int neighbor = ny * numCols + nx;
+                // The first step is taken right away, so it has to be clear now as well as unreserved
+                boolean passable = neighbor == startCell
+                        || (depth == 0 ? passability.canPassThrough(world, nx, ny) : canEnterLater(mover, passability, nx, ny));
+                if (!passable || !reservations.isFree(neighbor, from, from + period, mover)) {
+                    continue;
+                }
+                long next = (long) (depth + 1) * area + neighbor;
+                if (!closedSet.contains(next) && !cameFrom.containsKey(next)) {
+                    cameFrom.put(next, current);
+                    openSet.add(next);
+                }
+            }
+        }
+        if (best == startCell) {
+            reservations.reserve(mover, startCell, now, now + WINDOW * period);
+            return null;
+        }
+
+        // Read the plan backward, then reserve each location for the period the mover spends there
+        int length = depthOf(best, area);
+        int[] path = new int[length];
+        for (long state = best; state != startCell; state = cameFrom.get(state)) {
+            path[depthOf(state, area) - 1] = cellOf(state, area);
+        }
+        for (int i = 0; i < length; i++) {
+            // The last location is held for an extra period, covering the behavior that plans again from it
+            double until = now + (i == length - 1 ? i + 2 : i + 1) * period;
+            reservations.reserve(mover, path[i], now + i * period, until);
+        }
+        return path;
+    }
+
+    /** Returns 'true' if the route may pass through the given coordinates: they are passable now, or hold a mover. */
+    private boolean isOnRoute(Entity mover, Passability passability, int x, int y) {
+        if (!world.inBounds(x, y)) {
+            return false;
+        }
+        Entity occupant = world.getSlotEntity(world.occupantSlotAt(x, y));
+        return occupant == mover || passability.allows(occupant) || occupant instanceof Movable;
+    }
+
+    /**
+     * Returns 'true' if the mover could be at the given coordinates at some later step, reservations permitting:
+     * they are passable now, or held by another mover whose reservations say when it moves on.
+     */
+    private boolean canEnterLater(Entity mover, Passability passability, int x, int y) {
+        Entity occupant = world.getSlotEntity(world.occupantSlotAt(x, y));
+        return occupant == mover || passability.allows(occupant) || reservations.holds(occupant, y * world.getNumCols() + x);
+    }
+
+    private static int depthOf(long state, int area) {
+        return (int) (state / area);
+    }
+
+    private static int cellOf(long state, int area) {
+        return (int) (state % area);
+    }
+
+    private static int distance(int cell, int numCols, int x, int y) {
+        return Math.abs(x - cell % numCols) + Math.abs(y - cell / numCols);
+    }
+}
@@ -2,10 +2,8 @@ import processing.core.PImage;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.function.BiPredicate;
-import java.util.function.Predicate;
 
-public class Dude extends Actions implements Movable, Transformable{
+public class Dude extends Actions implements Movable, Transformable, PathPrecomputable {
 
     public static final String DUDE_KEY = "dude";
 
@@ -17,7 +15,11 @@ public class Dude extends Actions implements Movable, Transformable{
     private int resourceCount;
     private int resourceLimit;
 
-    private static final PathingStrategy pathingStrategy = new AStarPathingStrategy();
+    /** The locations this entity can move through. */
+    public static final Passability PASSABILITY = Passability.OPEN_OR_STUMP;
+
+    /** Path toward the current destination, reused while it stays clear. */
+    private final PlannedPath plannedPath = new PlannedPath();
 
     public Dude(String id, Point position, List<PImage> images, double animationPeriod, double behaviorPeriod, int resourceCount, int resourceLimit) {
         super(id, position, images, animationPeriod, behaviorPeriod);
@@ -48,14 +50,34 @@ public class Dude extends Actions implements Movable, Transformable{
     }
 
     public Optional<Entity> findTarget(World world) {
-        List<Class<? extends Entity>> potentialTargets;
+        return plannedPath.findTarget(world, this, targetKinds(), PASSABILITY);
+    }
 
+    /** Returns the kinds of entities this dude looks for. */
+    private List<Class<? extends Entity>> targetKinds() {
         if (resourceCount == resourceLimit) {
-            potentialTargets = List.of(House.class);
+            return List.of(House.class);
         } else {
-            potentialTargets = List.of(Tree.class, Sapling.class);
+            return List.of(Tree.class, Sapling.class);
         }
-        return world.findNearest(getPosition(), potentialTargets);
+    }
+
+    @Override
+    public Point peekDestination(World world) {
+        return world.findNearest(getPosition(), targetKinds(), PASSABILITY)
+                .map(Entity::getPosition)
+                .filter(position -> !getPosition().adjacentTo(position))
+                .orElse(null);
+    }
+
+    @Override
+    public Passability getPassability() {
+        return PASSABILITY;
+    }
+
+    @Override
+    public PlannedPath getPlannedPath() {
+        return plannedPath;
     }
 
     @Override
@@ -108,11 +130,7 @@ public class Dude extends Actions implements Movable, Transformable{
 
     @Override
     public Point nextPosition(World world, Point destination) {
-        Predicate<Point> canPassThrough = point -> world.inBounds(point) && (!world.isOccupied(point) || (world.getOccupant(point).get() instanceof Stump));
-        BiPredicate<Point, Point> withinReach = Point::adjacentTo;
-        List<Point> path = pathingStrategy.computePath(getPosition(), destination, canPassThrough, withinReach, PathingStrategy.CARDINAL_NEIGHBORS);
-
-        return !path.isEmpty() ? path.getFirst() : getPosition();
+        return plannedPath.nextPosition(world, this, PASSABILITY, destination);
 //        // Differences between the destination and current position along each axis
 //        int deltaX = destination.x - getPosition().x;
 //        int deltaY = destination.y - getPosition().y;
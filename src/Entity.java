@@ -23,6 +23,12 @@ public abstract class Entity {
 
     /** Index of the element from 'images' used to draw the entity. */
     private int imageIndex;
+
+    /** Slot assigned by the world the entity is in, or 'World.EMPTY_SLOT'. */
+    private int worldSlot;
+
+    /** Slot assigned by a packed event queue while the entity has events in it, or 'PackedEventQueue.NONE'. */
+    private int schedulerSlot;
     /**
      * Constructs an Entity with specified characteristics.
      * In the base program, this is not called directly.
@@ -37,6 +43,8 @@ public abstract class Entity {
         this.position = position;
         this.images = images;
         this.imageIndex = 0;
+        this.worldSlot = World.EMPTY_SLOT;
+        this.schedulerSlot = PackedEventQueue.NONE;
     }
 
 
@@ -45,7 +53,7 @@ public abstract class Entity {
         if (id.isEmpty()) {
             return null;
         } else {
-            return String.format("%s %d %d %d", id, position.x, position.y, imageIndex);
+            return String.format("%s %d %d %d", id, position.x, position.y, getImageIndex());
         }
     }
 
@@ -69,4 +77,12 @@ public abstract class Entity {
 
     public String getId() {return id; }
 
+    public int getWorldSlot() {return worldSlot; }
+
+    public void setWorldSlot(int worldSlot) {this.worldSlot = worldSlot; }
+
+    public int getSchedulerSlot() {return schedulerSlot; }
+
+    public void setSchedulerSlot(int schedulerSlot) {this.schedulerSlot = schedulerSlot; }
+
 }
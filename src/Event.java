@@ -1,18 +1,37 @@
 /** An event owned by an entity that will occur at a specific time. */
 public final class Event implements Comparable<Event> {
+    /** Position value of an event that isn't stored anywhere. */
+    public static final int NO_INDEX = -1;
+
     /** The timestamp, in seconds, at which the event occurs. */
     private final double time;
 
+    /** Scheduling order, used to run events with the same timestamp in the order they were scheduled. */
+    private final long sequence;
+
     /** The entity that "owns" with the event. */
     private final Entity entity;
 
     /** The action to carry out when the event occurs. */
     private final Action action;
 
-    public Event(Action action, double time, Entity entity) {
+    /** Position of the event in the scheduler's queue, or 'NO_INDEX'. */
+    private int queueIndex;
+
+    /** Bucket of the scheduler's queue holding the event, for queues that have buckets. */
+    private int queueBucket;
+
+    /** Position of the event in its entity's pending list, or 'NO_INDEX'. */
+    private int pendingIndex;
+
+    public Event(Action action, double time, long sequence, Entity entity) {
         this.action = action;
         this.time = time;
+        this.sequence = sequence;
         this.entity = entity;
+        this.queueIndex = NO_INDEX;
+        this.queueBucket = NO_INDEX;
+        this.pendingIndex = NO_INDEX;
     }
 
     public Action getAction() {
@@ -23,12 +42,41 @@ public final class Event implements Comparable<Event> {
         return time;
     }
 
+    public long getSequence() {
+        return sequence;
+    }
+
     public Entity getEntity() {
         return entity;
     }
 
+    public int getQueueIndex() {
+        return queueIndex;
+    }
+
+    public void setQueueIndex(int queueIndex) {
+        this.queueIndex = queueIndex;
+    }
+
+    public int getQueueBucket() {
+        return queueBucket;
+    }
+
+    public void setQueueBucket(int queueBucket) {
+        this.queueBucket = queueBucket;
+    }
+
+    public int getPendingIndex() {
+        return pendingIndex;
+    }
+
+    public void setPendingIndex(int pendingIndex) {
+        this.pendingIndex = pendingIndex;
+    }
+
     /**
      * Compare this Event with another for order based on time in milliseconds.
+     * Events with the same time are ordered by when they were scheduled.
      * Returns a negative integer if this object is ordered before the other.
      * Returns 0 if this object and the other are ordered at the same position.
      * Returns a positive integer if this object is ordered after the other.
@@ -38,6 +86,7 @@ public final class Event implements Comparable<Event> {
      */
     @Override
     public int compareTo(Event other) {
-        return Double.compare(time, other.time);
+        int byTime = Double.compare(time, other.time);
+        return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
     }
 }
@@ -0,0 +1,109 @@
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of events in which every event knows its own position,
+ * so that any queued event can be removed in logarithmic time.
+ */
+public final class EventHeap implements EventQueue {
+    /** Heap-ordered events. Only the first 'size' elements are valid. */
+    private Event[] events;
+
+    /** Number of queued events. */
+    private int size;
+
+    public EventHeap() {
+        this.events = new Event[64];
+        this.size = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Event peek() {
+        return size == 0 ? null : events[0];
+    }
+
+    @Override
+    public void add(Event event) {
+        if (size == events.length) {
+            events = Arrays.copyOf(events, size * 2);
+        }
+        siftUp(size++, event);
+    }
+
+    @Override
+    public Event poll() {
+        if (size == 0) {
+            return null;
+        }
+        Event first = events[0];
+        removeAt(0);
+        return first;
+    }
+
+    @Override
+    public boolean remove(Event event) {
+        int index = event.getQueueIndex();
+        if (index < 0 || index >= size || events[index] != event) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    private void removeAt(int index) {
+        Event removed = events[index];
+        removed.setQueueIndex(Event.NO_INDEX);
+
+        Event last = events[--size];
+        events[size] = null;
+        if (index < size) {
+            siftDown(index, last);
+            if (events[index] == last) {
+                siftUp(index, last);
+            }
+        }
+    }
+
+    private void siftUp(int index, Event event) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            Event parentEvent = events[parent];
+            if (event.compareTo(parentEvent) >= 0) {
+                break;
+            }
+            place(index, parentEvent);
+            index = parent;
+        }
+        place(index, event);
+    }
+
+    private void siftDown(int index, Event event) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && events[right].compareTo(events[child]) < 0) {
+                child = right;
+            }
+            if (event.compareTo(events[child]) <= 0) {
+                break;
+            }
+            place(index, events[child]);
+            index = child;
+        }
+        place(index, event);
+    }
+
+    private void place(int index, Event event) {
+        events[index] = event;
+        event.setQueueIndex(index);
+    }
+}
@@ -0,0 +1,16 @@
+/** A priority queue of scheduled events, ordered by time and then by scheduling order. */
+public interface EventQueue {
+    boolean isEmpty();
+
+    /** Returns the earliest event without removing it, or null if the queue is empty. */
+    Event peek();
+
+    /** Removes and returns the earliest event, or null if the queue is empty. */
+    Event poll();
+
+    /** Queues an event. */
+    void add(Event event);
+
+    /** Removes a queued event. Returns 'false' if the event isn't in this queue. */
+    boolean remove(Event event);
+}
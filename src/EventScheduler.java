@@ -2,70 +2,296 @@ import java.util.*;
 
 /** Tracks world events that have been scheduled. */
 public final class EventScheduler {
-    /** All current events. */
-    private final PriorityQueue<Event> eventQueue;
+    /** All current events, or null when 'packedQueue' is used instead. */
+    private final EventQueue eventQueue;
 
-    /** All current events sorted by entity, must be synchronized with 'eventQueue'. */
+    /**
+     * All current events sorted by entity, must be synchronized with 'eventQueue'.
+     * Each event stores its position in its entity's list so it can be removed without a search.
+     */
     private final Map<Entity, List<Event>> pendingEvents;
 
+    /** All current events stored without per-event objects, or null when 'eventQueue' is used instead. */
+    private final PackedEventQueue packedQueue;
+
     /** The current time in the world. */
     private double currentTime;
 
+    /** Number of events scheduled so far, used to order events that share a timestamp. */
+    private long scheduledCount;
+
+    /** Whether entities compute their image index from the current time instead of scheduling animations. */
+    private boolean lazyAnimation;
+
+    /** Plans paths for the behaviors of each timestamp in parallel before running them, or null. */
+    private PathPrecomputer pathPrecomputer;
+
+    /** Reservations whose time follows the current time, dropping those that have passed, or null. */
+    private ReservationTable reservationTable;
+
+    /** World whose pathing node budget is refilled whenever the current time moves on to a new timestamp, or null. */
+    private World pathingBudgetWorld;
+
     public EventScheduler() {
-        this.eventQueue = new PriorityQueue<>();
+        this(new EventHeap());
+    }
+
+    /** Creates a scheduler that stores its events in the given queue. */
+    public EventScheduler(EventQueue eventQueue) {
+        this.eventQueue = eventQueue;
         this.pendingEvents = new HashMap<>();
+        this.packedQueue = null;
+        this.currentTime = 0;
+        this.scheduledCount = 0;
+    }
+
+    /** Creates a scheduler that stores its events as opcodes in parallel arrays. */
+    public EventScheduler(PackedEventQueue packedQueue) {
+        this.eventQueue = null;
+        this.pendingEvents = null;
+        this.packedQueue = packedQueue;
         this.currentTime = 0;
+        this.scheduledCount = 0;
     }
 
     /** Queues an entity's event. */
     public void scheduleEvent(Entity entity, Action action, double afterPeriod) {
         double time = this.currentTime + afterPeriod;
 
-        Event event = new Event(action, time, entity);
+        if (packedQueue != null) {
+            packedQueue.add(entity, time, PackedEventQueue.ACTION, 0, action, null, null);
+            return;
+        }
+
+        Event event = new Event(action, time, scheduledCount++, entity);
 
         this.eventQueue.add(event);
 
         // Synchronize list of pending events for the given entity
-        List<Event> pending = this.pendingEvents.getOrDefault(entity, new LinkedList<>());
+        List<Event> pending = this.pendingEvents.computeIfAbsent(entity, key -> new ArrayList<>());
+        event.setPendingIndex(pending.size());
         pending.add(event);
-        this.pendingEvents.put(entity, pending);
+    }
+
+    /** Queues an entity's animation, which repeats 'repeatCount' times or forever if it is 0. */
+    public void scheduleAnimation(Actions entity, int repeatCount, double afterPeriod) {
+        if (packedQueue != null) {
+            packedQueue.add(entity, this.currentTime + afterPeriod, PackedEventQueue.ANIMATION, repeatCount, null, null, null);
+        } else {
+            scheduleEvent(entity, new Animation(entity, repeatCount), afterPeriod);
+        }
+    }
+
+    /** Queues an entity's behavior. */
+    public void scheduleBehavior(Actions entity, World world, ImageLibrary imageLibrary, double afterPeriod) {
+        if (packedQueue != null) {
+            packedQueue.add(entity, this.currentTime + afterPeriod, PackedEventQueue.BEHAVIOR, 0, null, world, imageLibrary);
+        } else {
+            scheduleEvent(entity, new Behavior(entity, world, imageLibrary), afterPeriod);
+        }
     }
 
     /** Removes all events of a given an entity. */
     public void unscheduleAllEvents(Entity entity) {
+        if (packedQueue != null) {
+            packedQueue.removeAll(entity);
+            return;
+        }
+
         List<Event> pending = this.pendingEvents.remove(entity);
 
         if (pending != null) {
             for (Event event : pending) {
+                event.setPendingIndex(Event.NO_INDEX);
                 this.eventQueue.remove(event);
             }
         }
     }
 
+    /** Returns 'true' if any events of the given entity are scheduled. */
+    public boolean hasPendingEvents(Entity entity) {
+        if (packedQueue != null) {
+            return entity.getSchedulerSlot() != PackedEventQueue.NONE;
+        }
+        List<Event> pending = this.pendingEvents.get(entity);
+        return pending != null && !pending.isEmpty();
+    }
+
     /** Removes an event from the pending list to synchronize with the queue. */
     public void removePendingEvent(Event event) {
         List<Event> pending = this.pendingEvents.get(event.getEntity());
+        int index = event.getPendingIndex();
 
-        if (pending != null) {
-            pending.remove(event);
+        if (pending != null && index >= 0 && index < pending.size() && pending.get(index) == event) {
+            // Fill the gap with the last event so removal doesn't shift the list
+            Event last = pending.remove(pending.size() - 1);
+            if (last != event) {
+                pending.set(index, last);
+                last.setPendingIndex(index);
+            }
+            event.setPendingIndex(Event.NO_INDEX);
         }
     }
 
     /** Execute all actions to the given time. */
     public void updateOnTime(double time) {
+        updateOnTime(time, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Executes actions up to the given time, stopping once at least 'maxEvents' events have run.
+     * Returns 'true' if the given time was reached; otherwise the current time is that of the last event run,
+     * and the events left are run by the next update.
+     */
+    public boolean updateOnTime(double time, int maxEvents) {
         double stopTime = this.currentTime + time;
+        int remaining = maxEvents;
 
-        while (!this.eventQueue.isEmpty() && this.eventQueue.peek().getTime() <= stopTime) {
-            Event next = this.eventQueue.poll();
-            removePendingEvent(next);
-            this.currentTime = next.getTime();
-            next.getAction().execute(this);
+        if (packedQueue != null) {
+            remaining = updatePackedOnTime(stopTime, remaining);
+        } else {
+            while (remaining > 0 && !this.eventQueue.isEmpty() && this.eventQueue.peek().getTime() <= stopTime) {
+                if (pathPrecomputer != null) {
+                    // Timestamps aren't split, so a batch may run past the budget
+                    remaining -= updateBatch();
+                    continue;
+                }
+                Event next = this.eventQueue.poll();
+                removePendingEvent(next);
+                advanceTo(next.getTime());
+                next.getAction().execute(this);
+                remaining--;
+            }
         }
 
+        if (remaining <= 0 && hasEventBy(stopTime)) {
+            return false;
+        }
         this.currentTime = stopTime;
+        return true;
+    }
+
+    /** Returns 'true' if an event is queued at or before the given time. */
+    private boolean hasEventBy(double time) {
+        if (packedQueue != null) {
+            return !packedQueue.isEmpty() && packedQueue.getTime(packedQueue.peek()) <= time;
+        }
+        return !this.eventQueue.isEmpty() && this.eventQueue.peek().getTime() <= time;
+    }
+
+    /**
+     * Runs every queued event of the earliest timestamp, in order, after planning the paths of their behaviors.
+     * Events scheduled while the batch runs are left for the next batch, which runs them in the same order.
+     * Returns the number of events taken from the queue.
+     */
+    private int updateBatch() {
+        double time = this.eventQueue.peek().getTime();
+        List<Event> batch = new ArrayList<>();
+        while (!this.eventQueue.isEmpty() && this.eventQueue.peek().getTime() == time) {
+            batch.add(this.eventQueue.poll());
+        }
+
+        World world = null;
+        List<Entity> behaving = new ArrayList<>();
+        for (Event event : batch) {
+            if (event.getAction() instanceof Behavior behavior) {
+                world = behavior.getWorld();
+                behaving.add(event.getEntity());
+            }
+        }
+        if (world != null) {
+            pathPrecomputer.precompute(world, behaving);
+        }
+
+        advanceTo(time);
+        for (Event event : batch) {
+            // Skip events unscheduled by an earlier event of the batch
+            if (event.getPendingIndex() != Event.NO_INDEX) {
+                removePendingEvent(event);
+                event.getAction().execute(this);
+            }
+        }
+        return batch.size();
+    }
+
+    /** Dispatches packed events by opcode up to the given time or until the budget runs out, and returns what is left of it. */
+    private int updatePackedOnTime(double stopTime, int remaining) {
+        while (remaining > 0 && !packedQueue.isEmpty() && packedQueue.getTime(packedQueue.peek()) <= stopTime) {
+            int next = packedQueue.poll();
+
+            // Read everything and release the event before dispatching, since dispatching may reuse its id
+            advanceTo(packedQueue.getTime(next));
+            Entity entity = packedQueue.getEntity(next);
+            byte opcode = packedQueue.getOpcode(next);
+            int repeatCount = packedQueue.getRepeatCount(next);
+            Action action = packedQueue.getAction(next);
+            World world = packedQueue.getWorld(next);
+            ImageLibrary imageLibrary = packedQueue.getImageLibrary(next);
+            packedQueue.release(next);
+
+            switch (opcode) {
+                case PackedEventQueue.ANIMATION -> {
+                    Actions animated = (Actions) entity;
+                    animated.updateImage();
+                    if (repeatCount != 1) {
+                        scheduleAnimation(animated, Math.max(repeatCount - 1, 0), animated.getAnimationPeriod());
+                    }
+                }
+                case PackedEventQueue.BEHAVIOR -> ((Actions) entity).executeBehavior(world, imageLibrary, this);
+                default -> action.execute(this);
+            }
+            remaining--;
+        }
+        return remaining;
+    }
+
+    /** Sets the current time, moving the reservation table along and refilling the pathing budget when it changes. */
+    private void advanceTo(double time) {
+        if (pathingBudgetWorld != null && time != this.currentTime) {
+            pathingBudgetWorld.startPathingFrame();
+        }
+        this.currentTime = time;
+        if (reservationTable != null && reservationTable.getTime() != time) {
+            reservationTable.advanceTo(time);
+        }
     }
 
     public double getCurrentTime() {
         return currentTime;
     }
+
+    public boolean isLazyAnimation() {
+        return lazyAnimation;
+    }
+
+    public void setLazyAnimation(boolean lazyAnimation) {
+        this.lazyAnimation = lazyAnimation;
+    }
+
+    public PathPrecomputer getPathPrecomputer() {
+        return pathPrecomputer;
+    }
+
+    /** Plans paths in parallel before each timestamp's behaviors with the given precomputer, or stops if null. Packed queues run serially. */
+    public void setPathPrecomputer(PathPrecomputer pathPrecomputer) {
+        this.pathPrecomputer = pathPrecomputer;
+    }
+
+    public ReservationTable getReservationTable() {
+        return reservationTable;
+    }
+
+    /** Keeps the given reservation table's time in step with the current time, or stops if null. */
+    public void setReservationTable(ReservationTable reservationTable) {
+        this.reservationTable = reservationTable;
+    }
+
+    public World getPathingBudgetWorld() {
+        return pathingBudgetWorld;
+    }
+
+    /** Refills the given world's pathing node budget at every new timestamp, so long updates don't run out of it, or stops if null. */
+    public void setPathingBudgetWorld(World pathingBudgetWorld) {
+        this.pathingBudgetWorld = pathingBudgetWorld;
+    }
 }
@@ -4,6 +4,7 @@ import java.util.List;
 
 public class Explosion extends Actions {
     public static final String EXPLOSION_KEY = "explosion";
+    public static final int EXPLOSION_FINAL_IMAGE_INDEX = 9;
 
     /**
      * Constructs an Entity with specified characteristics.
@@ -26,15 +27,22 @@ public class Explosion extends Actions {
 
     @Override
     public void executeBehavior(World world, ImageLibrary imageLibrary, EventScheduler scheduler) {
-        if (getImageIndex() >= 9) {
+        if (getImageIndex() >= EXPLOSION_FINAL_IMAGE_INDEX) {
             world.removeEntity(scheduler, this);
+        } else if (isAnimationLazy()) {
+            // 'updateImage' isn't called, so check back when the image index gets there
+            scheduler.scheduleBehavior(this, world, imageLibrary, getTimeUntilImageIndex(EXPLOSION_FINAL_IMAGE_INDEX));
         } else {
-            scheduleBehavior(scheduler, world, imageLibrary);
+            // Nothing to do until 'updateImage' reaches the last image
+            park(scheduler, world, imageLibrary);
         }
     }
 
     @Override
     public void updateImage(){
         setImageIndex(getImageIndex() + 1);
+        if (getImageIndex() >= EXPLOSION_FINAL_IMAGE_INDEX) {
+            wake();
+        }
     }
 }
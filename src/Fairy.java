@@ -1,18 +1,19 @@
 import processing.core.PImage;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.function.BiPredicate;
-import java.util.function.Predicate;
 
-public class Fairy extends Actions implements Movable {
+public class Fairy extends Actions implements Movable, PathPrecomputable {
     public static final String FAIRY_KEY = "fairy";
     public static final int FAIRY_PARSE_PROPERTY_BEHAVIOR_PERIOD_INDEX = 0;
     public static final int FAIRY_PARSE_PROPERTY_ANIMATION_PERIOD_INDEX = 1;
     public static final int FAIRY_PARSE_PROPERTY_COUNT = 2;
 
-    private static final PathingStrategy pathingStrategy = new AStarPathingStrategy();
+    /** The locations this entity can move through. */
+    public static final Passability PASSABILITY = Passability.OPEN;
+
+    /** Path toward the current destination, reused while it stays clear. */
+    private final PlannedPath plannedPath = new PlannedPath();
 
     public Fairy(String id, Point position, List<PImage> images, double animationPeriod, double behaviorPeriod) {
         super(id, position, images, animationPeriod, behaviorPeriod);
@@ -26,7 +27,7 @@ public class Fairy extends Actions implements Movable {
 
     @Override
     public void executeBehavior(World world, ImageLibrary imageLibrary, EventScheduler scheduler) {
-        Optional<Entity> fairyTarget = world.findNearest(getPosition(), new ArrayList<>(List.of(Stump.class)));
+        Optional<Entity> fairyTarget = findTarget(world);
 
         if (fairyTarget.isPresent()) {
             Point tgtPos = fairyTarget.get().getPosition();
@@ -42,6 +43,28 @@ public class Fairy extends Actions implements Movable {
         scheduleBehavior(scheduler, world, imageLibrary);
     }
 
+    public Optional<Entity> findTarget(World world) {
+        return plannedPath.findTarget(world, this, List.of(Stump.class), PASSABILITY);
+    }
+
+    @Override
+    public Point peekDestination(World world) {
+        return world.findNearest(getPosition(), List.of(Stump.class), PASSABILITY)
+                .map(Entity::getPosition)
+                .filter(position -> !getPosition().adjacentTo(position))
+                .orElse(null);
+    }
+
+    @Override
+    public Passability getPassability() {
+        return PASSABILITY;
+    }
+
+    @Override
+    public PlannedPath getPlannedPath() {
+        return plannedPath;
+    }
+
     @Override
     public void updateImage() {
         setImageIndex(getImageIndex() + 1);
@@ -63,11 +86,7 @@ public class Fairy extends Actions implements Movable {
 
     @Override
     public Point nextPosition(World world, Point destination) {
-        Predicate<Point> canPassThrough = point -> world.inBounds(point) && !world.isOccupied(point);
-        BiPredicate<Point, Point> withinReach = Point::adjacentTo;
-        List<Point> path = pathingStrategy.computePath(getPosition(), destination, canPassThrough, withinReach, PathingStrategy.CARDINAL_NEIGHBORS);
-
-        return !path.isEmpty() ? path.getFirst() : getPosition();
+        return plannedPath.nextPosition(world, this, PASSABILITY, destination);
     }
 //    @Override
 //    public Point nextPosition(World world, Point destination) {
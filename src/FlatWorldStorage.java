@@ -0,0 +1,37 @@
+/** Stores every location of a world in row-major primitive arrays. */
+public final class FlatWorldStorage implements WorldStorage {
+    /** World width. */
+    private final int numCols;
+
+    /** Occupancy slots, row-major. */
+    private final int[] slots;
+
+    /** Background tile ids, row-major. */
+    private final short[] tileIds;
+
+    public FlatWorldStorage(int numRows, int numCols) {
+        this.numCols = numCols;
+        this.slots = new int[numRows * numCols];
+        this.tileIds = new short[numRows * numCols];
+    }
+
+    @Override
+    public int getSlot(int x, int y) {
+        return slots[y * numCols + x];
+    }
+
+    @Override
+    public void setSlot(int x, int y, int slot) {
+        slots[y * numCols + x] = slot;
+    }
+
+    @Override
+    public short getTileId(int x, int y) {
+        return tileIds[y * numCols + x];
+    }
+
+    @Override
+    public void setTileId(int x, int y, short tileId) {
+        tileIds[y * numCols + x] = tileId;
+    }
+}
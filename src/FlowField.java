@@ -0,0 +1,288 @@
+import java.util.*;
+
+/**
+ * A distance field holding, for every passable location, the number of steps to the nearest
+ * location within reach (adjacent) of an entity of the goal kinds.
+ * Movers with the same goal kinds and passability share one field and follow it downhill.
+ * The field is repaired incrementally: occupancy changes are recorded as they happen, and the
+ * affected part of the field is recomputed before the next query.
+ */
+public final class FlowField implements OccupancyListener {
+    /** Distance of locations that can't reach a goal. */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final World world;
+    private final List<Class<? extends Entity>> kinds;
+    private final Passability passability;
+    private final int numRows;
+    private final int numCols;
+
+    /** Steps to the nearest goal location, row-major. */
+    private final int[] distances;
+
+    /** Locations whose occupant changed since the last repair, row-major indices. */
+    private int[] dirty;
+    private int dirtyCount;
+
+    /** Marks locations invalidated by the current repair when equal to 'repairStamp'. */
+    private final int[] invalidStamps;
+    private int repairStamp;
+
+    /** Whether the field has been computed at all. */
+    private boolean built;
+
+    public FlowField(World world, List<Class<? extends Entity>> kinds, Passability passability) {
+        this.world = world;
+        this.kinds = List.copyOf(kinds);
+        this.passability = passability;
+        this.numRows = world.getNumRows();
+        this.numCols = world.getNumCols();
+        this.distances = new int[numRows * numCols];
+        this.dirty = new int[64];
+        this.invalidStamps = new int[numRows * numCols];
+        this.built = false;
+    }
+
+    @Override
+    public void occupancyChanged(int x, int y) {
+        if (!built) {
+            return;
+        }
+        // The location's passability and its neighbors' goal status may have changed
+        markDirty(x, y);
+        markDirty(x, y - 1);
+        markDirty(x, y + 1);
+        markDirty(x - 1, y);
+        markDirty(x + 1, y);
+    }
+
+    /** Returns the number of steps from the given location to a location within reach of a goal, or 'UNREACHABLE'. */
+    public int distanceFrom(Point start) {
+        update();
+        // The start is usually occupied by the mover itself, so it counts as within reach whether or not it is passable
+        if (adjacentTarget(start.x, start.y) != null) {
+            return 0;
+        }
+        int best = UNREACHABLE;
+        for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+            int d = distanceAt(CardinalNeighbors.x(start.x, i), CardinalNeighbors.y(start.y, i));
+            if (d != UNREACHABLE) {
+                best = Math.min(best, d + 1);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the steps of a shortest path from the given location to a location within reach of a goal,
+     * not including the start. Ties are broken in 'PathingStrategy.CARDINAL_NEIGHBORS' order.
+     */
+    public List<Point> pathFrom(Point start) {
+        List<Point> path = new ArrayList<>();
+        int remaining = distanceFrom(start);
+        if (remaining == UNREACHABLE) {
+            return path;
+        }
+
+        int x = start.x;
+        int y = start.y;
+        while (remaining > 0) {
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int nx = CardinalNeighbors.x(x, i);
+                int ny = CardinalNeighbors.y(y, i);
+                if (distanceAt(nx, ny) == remaining - 1) {
+                    x = nx;
+                    y = ny;
+                    break;
+                }
+            }
+            path.add(new Point(x, y));
+            remaining--;
+        }
+        return path;
+    }
+
+    /** Returns the goal entity reached by following the field from the given location, or empty if none can be reached. */
+    public Optional<Entity> nearestTarget(Point start) {
+        if (distanceFrom(start) == UNREACHABLE) {
+            return Optional.empty();
+        }
+        List<Point> path = pathFrom(start);
+        Point end = path.isEmpty() ? start : path.get(path.size() - 1);
+        return Optional.ofNullable(adjacentTarget(end.x, end.y));
+    }
+
+    /** Returns the first goal entity next to the given location in 'PathingStrategy.CARDINAL_NEIGHBORS' order, or null. */
+    private Entity adjacentTarget(int x, int y) {
+        for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+            Entity occupant = world.getSlotEntity(world.occupantSlotAt(CardinalNeighbors.x(x, i), CardinalNeighbors.y(y, i)));
+            if (isKind(occupant)) {
+                return occupant;
+            }
+        }
+        return null;
+    }
+
+    /** Brings the field up to date with the world. */
+    private void update() {
+        if (!built) {
+            build();
+        } else if (dirtyCount > 0) {
+            repair();
+        }
+    }
+
+    /** Computes the whole field with a breadth-first search from every goal location. */
+    private void build() {
+        Arrays.fill(distances, UNREACHABLE);
+        int[] queue = new int[numRows * numCols];
+        int head = 0;
+        int tail = 0;
+        for (Entity entity : world.getEntities()) {
+            if (isKind(entity)) {
+                Point position = entity.getPosition();
+                for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                    int nx = CardinalNeighbors.x(position.x, i);
+                    int ny = CardinalNeighbors.y(position.y, i);
+                    if (passability.canPassThrough(world, nx, ny) && distances[ny * numCols + nx] != 0) {
+                        distances[ny * numCols + nx] = 0;
+                        queue[tail++] = ny * numCols + nx;
+                    }
+                }
+            }
+        }
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % numCols;
+            int y = cell / numCols;
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int nx = CardinalNeighbors.x(x, i);
+                int ny = CardinalNeighbors.y(y, i);
+                if (passability.canPassThrough(world, nx, ny) && distances[ny * numCols + nx] == UNREACHABLE) {
+                    distances[ny * numCols + nx] = distances[cell] + 1;
+                    queue[tail++] = ny * numCols + nx;
+                }
+            }
+        }
+
+        dirtyCount = 0;
+        built = true;
+    }
+
+    /**
+     * Recomputes the locations that depended on a changed location.
+     * First every location whose distance could have been derived through a changed location is invalidated;
+     * the remaining distances are still exact. Then the invalidated locations are re-seeded from their valid
+     * neighbors and the decreases are propagated in distance order.
+     */
+    private void repair() {
+        repairStamp++;
+        List<Integer> invalid = new ArrayList<>();
+        Deque<Integer> cascade = new ArrayDeque<>();
+        for (int i = 0; i < dirtyCount; i++) {
+            int cell = dirty[i];
+            if (invalidStamps[cell] != repairStamp) {
+                invalidStamps[cell] = repairStamp;
+                invalid.add(cell);
+                cascade.add(cell);
+            }
+        }
+        dirtyCount = 0;
+
+        while (!cascade.isEmpty()) {
+            int cell = cascade.poll();
+            int d = distances[cell];
+            if (d == UNREACHABLE) {
+                continue;
+            }
+            int x = cell % numCols;
+            int y = cell / numCols;
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int nx = CardinalNeighbors.x(x, i);
+                int ny = CardinalNeighbors.y(y, i);
+                if (world.inBounds(nx, ny)) {
+                    int neighbor = ny * numCols + nx;
+                    if (invalidStamps[neighbor] != repairStamp && distances[neighbor] == d + 1) {
+                        invalidStamps[neighbor] = repairStamp;
+                        invalid.add(neighbor);
+                        cascade.add(neighbor);
+                    }
+                }
+            }
+        }
+        for (int cell : invalid) {
+            distances[cell] = UNREACHABLE;
+        }
+
+        PriorityQueue<Long> frontier = new PriorityQueue<>();
+        for (int cell : invalid) {
+            int x = cell % numCols;
+            int y = cell / numCols;
+            if (!passability.canPassThrough(world, x, y)) {
+                continue;
+            }
+            int d = isGoal(x, y) ? 0 : UNREACHABLE;
+            for (int i = 0; i < CardinalNeighbors.COUNT && d != 0; i++) {
+                int neighborDistance = distanceAt(CardinalNeighbors.x(x, i), CardinalNeighbors.y(y, i));
+                if (neighborDistance != UNREACHABLE) {
+                    d = Math.min(d, neighborDistance + 1);
+                }
+            }
+            if (d != UNREACHABLE) {
+                distances[cell] = d;
+                frontier.add(((long) d << 32) | cell);
+            }
+        }
+
+        while (!frontier.isEmpty()) {
+            long entry = frontier.poll();
+            int d = (int) (entry >>> 32);
+            int cell = (int) entry;
+            if (d > distances[cell]) {
+                continue;
+            }
+            int x = cell % numCols;
+            int y = cell / numCols;
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int nx = CardinalNeighbors.x(x, i);
+                int ny = CardinalNeighbors.y(y, i);
+                if (passability.canPassThrough(world, nx, ny) && distances[ny * numCols + nx] > d + 1) {
+                    distances[ny * numCols + nx] = d + 1;
+                    frontier.add(((long) (d + 1) << 32) | (ny * numCols + nx));
+                }
+            }
+        }
+    }
+
+    /** Returns the field's distance at the given location, or 'UNREACHABLE' outside the world. */
+    private int distanceAt(int x, int y) {
+        return world.inBounds(x, y) ? distances[y * numCols + x] : UNREACHABLE;
+    }
+
+    /** Returns 'true' if the given location is passable and within reach of a goal entity. */
+    private boolean isGoal(int x, int y) {
+        return passability.canPassThrough(world, x, y) && adjacentTarget(x, y) != null;
+    }
+
+    private boolean isKind(Entity entity) {
+        if (entity == null) {
+            return false;
+        }
+        for (Class<? extends Entity> kind : kinds) {
+            if (kind.isInstance(entity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markDirty(int x, int y) {
+        if (world.inBounds(x, y)) {
+            if (dirtyCount == dirty.length) {
+                dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+            }
+            dirty[dirtyCount++] = y * numCols + x;
+        }
+    }
+}
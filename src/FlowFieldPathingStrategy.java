@@ -0,0 +1,51 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Follows a shared 'FlowField' downhill instead of searching.
+ * The field already encodes its goal kinds and passability, so 'canPassThrough' and 'potentialNeighbors'
+ * are not consulted; the path ends at the first point within reach of 'end'.
+ * Obtain instances through 'World.getFlowField'.
+ */
+public final class FlowFieldPathingStrategy implements PathingStrategy {
+    private final FlowField field;
+
+    public FlowFieldPathingStrategy(FlowField field) {
+        this.field = field;
+    }
+
+    @Override
+    public List<Point> computePath(
+            Point start,
+            Point end,
+            Predicate<Point> canPassThrough,
+            BiPredicate<Point, Point> withinReach,
+            Function<Point, Stream<Point>> potentialNeighbors
+    ) {
+        List<Point> path = new ArrayList<>();
+        if (withinReach.test(end, start)) {
+            return path;
+        }
+        for (Point step : field.pathFrom(start)) {
+            path.add(step);
+            if (withinReach.test(end, step)) {
+                break;
+            }
+        }
+        return path;
+    }
+
+    /** Returns the goal entity with the shortest path from the given point, or empty if none can be reached. */
+    public Optional<Entity> nearestTarget(Point start) {
+        return field.nearestTarget(start);
+    }
+
+    public FlowField getField() {
+        return field;
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Limits how much simulation a single frame runs, so a frame that falls behind the clock, after a pause or a slow
+ * frame, doesn't try to run everything it missed at once and fall further behind.
+ * Each frame runs at most 'maxFrameTime' of simulated time and, once 'maxFrameEvents' events have run, stops at
+ * the time of the last one. What is left over is either caught up over the following frames, or dropped, in which
+ * case the simulation permanently runs that much behind the clock.
+ */
+public final class FrameBudget {
+    /** What to do with the simulated time a frame couldn't run within its budget. */
+    public enum Policy {
+        /** Run it in later frames, each still within the budget, until the simulation is back on time. */
+        CATCH_UP,
+        /** Forget it, so the next frame only runs the time that passes until then. */
+        DROP
+    }
+
+    /** Most simulated time, in seconds, a frame runs. */
+    private final double maxFrameTime;
+
+    /** Number of events after which a frame stops. */
+    private final int maxFrameEvents;
+
+    private final Policy policy;
+
+    /** Total simulated time dropped so far, subtracted from the clock. */
+    private double droppedTime;
+
+    /** Simulated time the last frame ended behind the clock, to be caught up. */
+    private double lag;
+
+    /** Number of frames that ran out of budget before reaching the clock. */
+    private long lateFrames;
+
+    public FrameBudget(double maxFrameTime, int maxFrameEvents, Policy policy) {
+        if (maxFrameTime <= 0 || maxFrameEvents <= 0) {
+            throw new IllegalArgumentException("Frame budget must be positive: " + maxFrameTime + ", " + maxFrameEvents);
+        }
+        this.maxFrameTime = maxFrameTime;
+        this.maxFrameEvents = maxFrameEvents;
+        this.policy = policy;
+    }
+
+    /** Runs the scheduler toward the given clock time, in simulated seconds, as far as the budget allows. */
+    public void update(EventScheduler scheduler, double clockTime) {
+        double targetTime = clockTime - droppedTime;
+        double frameTime = Math.min(targetTime - scheduler.getCurrentTime(), maxFrameTime);
+        scheduler.updateOnTime(Math.max(frameTime, 0), maxFrameEvents);
+
+        lag = Math.max(targetTime - scheduler.getCurrentTime(), 0);
+        if (lag > Actions.TIME_EPSILON) {
+            lateFrames++;
+            if (policy == Policy.DROP) {
+                droppedTime += lag;
+                lag = 0;
+            }
+        }
+    }
+
+    public double getMaxFrameTime() {
+        return maxFrameTime;
+    }
+
+    public int getMaxFrameEvents() {
+        return maxFrameEvents;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public double getDroppedTime() {
+        return droppedTime;
+    }
+
+    public double getLag() {
+        return lag;
+    }
+
+    public long getLateFrames() {
+        return lateFrames;
+    }
+}
@@ -0,0 +1,333 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A* specialized to a grid of fixed size with unit-cost cardinal moves.
+ * Search state lives in reusable primitive arrays indexed by 'y * numCols + x'; a generation stamp
+ * marks which entries belong to the current search, so nothing is cleared between searches.
+ * The arrays are split into pages allocated the first time a search reaches them, so memory grows with the
+ * area searches cover rather than with the size of the world.
+ * The open set is an indexed binary heap of locations, so membership tests take constant time.
+ * Expands locations in the same order as 'AStarPathingStrategy', so both choose the same path, unless a
+ * landmark heuristic is set; that heuristic is never below the Manhattan distance, so fewer locations are
+ * expanded, but ties may resolve differently.
+ */
+public final class GridAStarPathingStrategy implements PathingStrategy {
+    /** Returned by 'firstStep' when there is no path, or the start is already within reach. */
+    public static final int NO_STEP = -1;
+
+    /** Heap index of locations that have been expanded. */
+    private static final int CLOSED = -1;
+
+    /** Locations per page of search state, as a power of two. */
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+    /**
+     * Fields of each location's search state, stored side by side in its page: the cost of the best known
+     * path from the start, the estimated cost to the end, the previous location on that path, the position
+     * in 'heap' of open locations or 'CLOSED', and the generation the other fields are valid for.
+     */
+    private static final int G_SCORE = 0;
+    private static final int H_SCORE = 1;
+    private static final int CAME_FROM = 2;
+    private static final int HEAP_INDEX = 3;
+    private static final int GENERATION = 4;
+    private static final int FIELDS = 5;
+
+    private final int numRows;
+    private final int numCols;
+
+    /** Search state of 2^'PAGE_BITS' consecutive locations per page, or null for pages no search reached yet. */
+    private final int[][] pages;
+
+    /** Locations whose fields are valid for the current search have the current 'generation'. */
+    private int generation;
+
+    /** Open locations ordered by f score, grown as needed. Only the first 'size' elements are valid. */
+    private int[] heap;
+    private int size;
+
+    /** Tightens the Manhattan distance estimate when set, or null. */
+    private LandmarkHeuristic landmarkHeuristic;
+
+    /** Landmark tables of the current search, or null to estimate with the Manhattan distance alone. */
+    private LandmarkHeuristic.Tables searchTables;
+
+    /** Open locations adjacent to the end of the current search, used with 'searchTables'. */
+    private final int[] goalCells = new int[CardinalNeighbors.COUNT];
+    private int goalCount;
+
+    public GridAStarPathingStrategy(int numRows, int numCols) {
+        if ((long) numRows * numCols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Grid of %d by %d locations is too large", numCols, numRows));
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.pages = new int[(int) (((long) numRows * numCols + PAGE_MASK) >>> PAGE_BITS)][];
+        this.generation = 0;
+        this.heap = new int[256];
+    }
+
+    /**
+     * Returns the first step of a path from the start to a location adjacent to the end, as 'y * numCols + x',
+     * or 'NO_STEP'. Does not allocate.
+     */
+    public int firstStep(Point start, Point end, CellPredicate canPassThrough) {
+        int goal = findGoal(start, end, canPassThrough);
+        int startCell = start.y * numCols + start.x;
+        if (goal == NO_STEP || goal == startCell) {
+            return NO_STEP;
+        }
+        while (get(goal, CAME_FROM) != startCell) {
+            goal = get(goal, CAME_FROM);
+        }
+        return goal;
+    }
+
+    /**
+     * Searches for a path from the start to a location adjacent to the end and returns that location,
+     * or 'NO_STEP'. The path can be read backward with 'previousOf' until it reaches the start. Does not allocate.
+     */
+    public int findGoal(Point start, Point end, CellPredicate canPassThrough) {
+        return search(start, end, canPassThrough, null);
+    }
+
+    /** Returns the location before the given one on the path found by the last search. */
+    public int previousOf(int cell) {
+        return get(cell, CAME_FROM);
+    }
+
+    /** Returns the point of a location index returned by 'firstStep'. */
+    public Point toPoint(int cell) {
+        return new Point(cell % numCols, cell / numCols);
+    }
+
+    /**
+     * Return a list of points for a path from the start point to a point within reach of the end point.
+     * Neighbors are always the cardinal ones; 'potentialNeighbors' is not consulted.
+     */
+    @Override
+    public List<Point> computePath(
+            Point start,
+            Point end,
+            Predicate<Point> canPassThrough,
+            BiPredicate<Point, Point> withinReach,
+            Function<Point, Stream<Point>> potentialNeighbors
+    ) {
+        return buildPath(start, search(start, end, (x, y) -> canPassThrough.test(new Point(x, y)), withinReach));
+    }
+
+    /** Returns the path found by the last search, from after the start to the given location. */
+    private List<Point> buildPath(Point start, int cell) {
+        List<Point> path = new ArrayList<>();
+        int startCell = start.y * numCols + start.x;
+        if (cell == NO_STEP) {
+            return path;
+        }
+        while (cell != startCell) {
+            path.add(toPoint(cell));
+            cell = get(cell, CAME_FROM);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /** Like the other 'computePath', without wrapping locations in points to test them. */
+    @Override
+    public List<Point> computePath(
+            Point start,
+            Point end,
+            CellPredicate canPassThrough,
+            BiPredicate<Point, Point> withinReach,
+            CellNeighbors potentialNeighbors
+    ) {
+        return buildPath(start, search(start, end, canPassThrough, withinReach));
+    }
+
+    /**
+     * Runs the search and returns the expanded location within reach of the end, or 'NO_STEP'.
+     * A null 'withinReach' means adjacency, which is tested without allocating.
+     */
+    private int search(Point start, Point end, CellPredicate canPassThrough, BiPredicate<Point, Point> withinReach) {
+        nextGeneration();
+        size = 0;
+
+        searchTables = landmarkHeuristic != null ? landmarkHeuristic.getTables() : null;
+        goalCount = 0;
+        if (searchTables != null) {
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int gx = CardinalNeighbors.x(end.x, i);
+                int gy = CardinalNeighbors.y(end.y, i);
+                if (gx >= 0 && gx < numCols && gy >= 0 && gy < numRows && !searchTables.isObstacle(gy * numCols + gx)) {
+                    goalCells[goalCount++] = gy * numCols + gx;
+                }
+            }
+        }
+
+        int startCell = start.y * numCols + start.x;
+        open(startCell, 0, estimate(start.x, start.y, end), startCell);
+
+        while (size > 0) {
+            int current = poll();
+            int x = current % numCols;
+            int y = current / numCols;
+            if (withinReach == null
+                    ? Math.abs(end.x - x) + Math.abs(end.y - y) == 1
+                    : withinReach.test(end, new Point(x, y))) {
+                return current;
+            }
+
+            int g = get(current, G_SCORE) + 1;
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int nx = CardinalNeighbors.x(x, i);
+                int ny = CardinalNeighbors.y(y, i);
+                if (nx < 0 || nx >= numCols || ny < 0 || ny >= numRows || !canPassThrough.test(nx, ny)) {
+                    continue;
+                }
+                int neighbor = ny * numCols + nx;
+                int[] page = pages[neighbor >>> PAGE_BITS];
+                int base = (neighbor & PAGE_MASK) * FIELDS;
+                if (page == null || page[base + GENERATION] != generation) {
+                    open(neighbor, g, estimate(nx, ny, end), current);
+                } else if (page[base + HEAP_INDEX] != CLOSED && g < page[base + G_SCORE]) {
+                    page[base + G_SCORE] = g;
+                    page[base + CAME_FROM] = current;
+                    // Without landmarks the entry keeps its heap position, like the stale entries 'AStarPathingStrategy'
+                    // leaves in its 'PriorityQueue'; re-sifting here would change how ties resolve and thus the chosen path
+                    if (searchTables != null) {
+                        siftUp(page[base + HEAP_INDEX], neighbor);
+                    }
+                }
+            }
+        }
+        return NO_STEP;
+    }
+
+    /**
+     * Estimates the cost from a location to the end: the Manhattan distance, raised to one more than the
+     * landmark bound to the nearest open location adjacent to the end when landmark tables are available.
+     */
+    private int estimate(int x, int y, Point end) {
+        int h = Math.abs(end.x - x) + Math.abs(end.y - y);
+        if (goalCount == 0) {
+            return h;
+        }
+        int cell = y * numCols + x;
+        int bound = Integer.MAX_VALUE;
+        for (int i = 0; i < goalCount; i++) {
+            bound = Math.min(bound, searchTables.lowerBound(cell, goalCells[i]));
+        }
+        return Math.max(h, bound + 1);
+    }
+
+    private void open(int cell, int g, int h, int previous) {
+        int[] page = pages[cell >>> PAGE_BITS];
+        if (page == null) {
+            page = new int[FIELDS << PAGE_BITS];
+            pages[cell >>> PAGE_BITS] = page;
+        }
+        int base = (cell & PAGE_MASK) * FIELDS;
+        page[base + GENERATION] = generation;
+        page[base + G_SCORE] = g;
+        page[base + H_SCORE] = h;
+        page[base + CAME_FROM] = previous;
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        siftUp(size++, cell);
+    }
+
+    /** Returns a field of a location the current search has opened. */
+    private int get(int cell, int field) {
+        return pages[cell >>> PAGE_BITS][(cell & PAGE_MASK) * FIELDS + field];
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == 0) {
+            // Stamps wrapped around; forget every old stamp along with its page
+            Arrays.fill(pages, null);
+            generation = 1;
+        }
+    }
+
+    // The heap operations mirror 'java.util.PriorityQueue', so ties resolve as in 'AStarPathingStrategy'
+
+    private int poll() {
+        int result = heap[0];
+        pages[result >>> PAGE_BITS][(result & PAGE_MASK) * FIELDS + HEAP_INDEX] = CLOSED;
+        int last = heap[--size];
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return result;
+    }
+
+    private int compare(int a, int b) {
+        int byF = Integer.compare(get(a, G_SCORE) + get(a, H_SCORE), get(b, G_SCORE) + get(b, H_SCORE));
+        if (byF != 0 || searchTables == null) {
+            return byF;
+        }
+        // Landmark estimates are often exact, leaving wide plateaus of equal f; go deeper first to cross them
+        return Integer.compare(get(b, G_SCORE), get(a, G_SCORE));
+    }
+
+    private void siftUp(int index, int cell) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            int parentCell = heap[parent];
+            if (compare(cell, parentCell) >= 0) {
+                break;
+            }
+            place(index, parentCell);
+            index = parent;
+        }
+        place(index, cell);
+    }
+
+    private void siftDown(int index, int cell) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && compare(heap[child], heap[right]) > 0) {
+                child = right;
+            }
+            if (compare(cell, heap[child]) <= 0) {
+                break;
+            }
+            place(index, heap[child]);
+            index = child;
+        }
+        place(index, cell);
+    }
+
+    private void place(int index, int cell) {
+        heap[index] = cell;
+        pages[cell >>> PAGE_BITS][(cell & PAGE_MASK) * FIELDS + HEAP_INDEX] = index;
+    }
+
+    public LandmarkHeuristic getLandmarkHeuristic() {
+        return landmarkHeuristic;
+    }
+
+    /** Tightens the search's estimates with the given landmark heuristic, or goes back to Manhattan distances if null. */
+    public void setLandmarkHeuristic(LandmarkHeuristic landmarkHeuristic) {
+        this.landmarkHeuristic = landmarkHeuristic;
+    }
+
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public int getNumCols() {
+        return numCols;
+    }
+}
@@ -0,0 +1,552 @@
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Hierarchical pathfinding (HPA*) for large worlds.
+ * The world is partitioned into square clusters. Where two neighboring clusters share a run of passable
+ * locations along their border, an entrance connects them; the distances between the entrances of each
+ * cluster are precomputed. A query searches this small abstract graph first and then refines only its
+ * first leg into single steps, so the returned path ends at the next entrance rather than at the goal.
+ * Cluster data follows the occupancy grid: changed clusters are recomputed before the next query.
+ * Passability is fixed per instance; 'canPassThrough' is expected to agree with it and is not consulted.
+ * The goal locations are the passable locations within reach of 'end' among 'end' and its cardinal neighbors.
+ * Obtain instances through 'World.getHierarchicalPathfinder'.
+ */
+public final class HierarchicalPathingStrategy implements PathingStrategy, OccupancyListener {
+    /** Width and height, in tiles, of a single cluster. */
+    public static final int CLUSTER_SIZE = 16;
+
+    /** Border runs at least this long get an entrance at each end instead of one in the middle. */
+    private static final int LONG_ENTRANCE = 6;
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /** Abstract graph key of the start. Nodes are keyed by their location. */
+    private static final int START = -2;
+
+    /** Abstract graph key of the goal. */
+    private static final int GOAL = -1;
+
+    private final World world;
+    private final Passability passability;
+    private final int numRows;
+    private final int numCols;
+    private final int clusterRows;
+    private final int clusterCols;
+
+    /** Entrances to the cluster east of each cluster, as pairs of locations (inside, outside). */
+    private final int[][] eastEntrances;
+
+    /** Entrances to the cluster south of each cluster, as pairs of locations (inside, outside). */
+    private final int[][] southEntrances;
+
+    /** Entrance locations of each cluster, which are the nodes of the abstract graph. */
+    private final int[][] clusterNodes;
+
+    /** Distances within each cluster between its nodes, row-major by node index. */
+    private final int[][] clusterDistances;
+
+    private final boolean[] dirtyClusters;
+    private final boolean[] dirtyEastBorders;
+    private final boolean[] dirtySouthBorders;
+
+    /** Whether a cluster's index is in 'dirtyList'. */
+    private final boolean[] queued;
+
+    /** Indices of clusters that are dirty or have a dirty east or south border. */
+    private final List<Integer> dirtyList;
+
+    /** Whether the cluster data has been computed at all. */
+    private boolean built;
+
+    /** Where the first leg of the last abstract path leaves from: the start or a neighbor of it in another cluster. */
+    private int firstLegSource;
+
+    /** Scratch state of searches within one cluster, indexed by location within the cluster. */
+    private final int[] localDistances;
+    private final int[] localParents;
+    private final int[] localQueue;
+
+    public HierarchicalPathingStrategy(World world, Passability passability) {
+        this.world = world;
+        this.passability = passability;
+        this.numRows = world.getNumRows();
+        this.numCols = world.getNumCols();
+        this.clusterRows = (numRows + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        this.clusterCols = (numCols + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+        int clusters = clusterRows * clusterCols;
+        this.eastEntrances = new int[clusters][];
+        this.southEntrances = new int[clusters][];
+        this.clusterNodes = new int[clusters][];
+        this.clusterDistances = new int[clusters][];
+        this.dirtyClusters = new boolean[clusters];
+        this.dirtyEastBorders = new boolean[clusters];
+        this.dirtySouthBorders = new boolean[clusters];
+        this.queued = new boolean[clusters];
+        this.dirtyList = new ArrayList<>();
+        this.built = false;
+        this.localDistances = new int[CLUSTER_SIZE * CLUSTER_SIZE];
+        this.localParents = new int[CLUSTER_SIZE * CLUSTER_SIZE];
+        this.localQueue = new int[CLUSTER_SIZE * CLUSTER_SIZE];
+    }
+
+    @Override
+    public void occupancyChanged(int x, int y) {
+        if (!built) {
+            return;
+        }
+        int cx = x / CLUSTER_SIZE;
+        int cy = y / CLUSTER_SIZE;
+        int cluster = cy * clusterCols + cx;
+        markCluster(cluster);
+
+        // Locations on a cluster's edge take part in the entrances of that border
+        int localX = x % CLUSTER_SIZE;
+        int localY = y % CLUSTER_SIZE;
+        if (localX == CLUSTER_SIZE - 1 && cx + 1 < clusterCols) {
+            markEastBorder(cluster);
+        } else if (localX == 0 && cx > 0) {
+            markEastBorder(cluster - 1);
+        }
+        if (localY == CLUSTER_SIZE - 1 && cy + 1 < clusterRows) {
+            markSouthBorder(cluster);
+        } else if (localY == 0 && cy > 0) {
+            markSouthBorder(cluster - clusterCols);
+        }
+    }
+
+    @Override
+    public List<Point> computePath(
+            Point start,
+            Point end,
+            Predicate<Point> canPassThrough,
+            BiPredicate<Point, Point> withinReach,
+            Function<Point, Stream<Point>> potentialNeighbors
+    ) {
+        List<Point> path = new ArrayList<>();
+        if (!world.inBounds(start) || withinReach.test(end, start)) {
+            return path;
+        }
+        update();
+
+        List<Integer> goals = new ArrayList<>();
+        for (int i = -1; i < CardinalNeighbors.COUNT; i++) {
+            int x = i < 0 ? end.x : CardinalNeighbors.x(end.x, i);
+            int y = i < 0 ? end.y : CardinalNeighbors.y(end.y, i);
+            if (passability.canPassThrough(world, x, y) && withinReach.test(end, new Point(x, y))) {
+                goals.add(y * numCols + x);
+            }
+        }
+        if (goals.isEmpty()) {
+            return path;
+        }
+
+        // The first hop is the start itself
+        List<Integer> hops = searchAbstract(start, end, goals);
+        int from = start.y * numCols + start.x;
+        if (hops.size() > 1 && firstLegSource != from) {
+            path.add(pointOf(firstLegSource));
+            from = firstLegSource;
+        }
+        for (int i = 1; i < hops.size() && path.isEmpty(); i++) {
+            from = refineLeg(from, hops.get(i), goals, path);
+        }
+        return path;
+    }
+
+    /**
+     * Searches the abstract graph and returns its path as keys, from 'START' through node locations to 'GOAL'.
+     * Returns an empty list if no goal can be reached.
+     */
+    private List<Integer> searchAbstract(Point start, Point end, List<Integer> goals) {
+        int startCell = start.y * numCols + start.x;
+        int startCluster = clusterOf(startCell);
+
+        // Edges from the start, as (cost, source) keyed by node or 'GOAL'. The start is usually occupied by
+        // the mover, so it can't be an entrance; its neighbors across a cluster border are searched as well.
+        Map<Integer, int[]> startEdges = new HashMap<>();
+        addStartEdges(startEdges, startCell, 0, goals);
+        for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+            int x = CardinalNeighbors.x(start.x, i);
+            int y = CardinalNeighbors.y(start.y, i);
+            if (passability.canPassThrough(world, x, y) && clusterOf(y * numCols + x) != startCluster) {
+                addStartEdges(startEdges, y * numCols + x, 1, goals);
+            }
+        }
+
+        // Distances from each node of a cluster with goals to the nearest goal
+        Map<Integer, int[]> goalDistances = new HashMap<>();
+        for (int goal : goals) {
+            goalDistances.computeIfAbsent(clusterOf(goal), cluster -> {
+                List<Integer> sources = new ArrayList<>();
+                for (int other : goals) {
+                    if (clusterOf(other) == cluster) {
+                        sources.add(other);
+                    }
+                }
+                searchCluster(cluster, sources);
+                int[] nodes = clusterNodes[cluster];
+                int[] distances = new int[nodes.length];
+                for (int i = 0; i < nodes.length; i++) {
+                    distances[i] = localDistances[localIndex(nodes[i])];
+                }
+                return distances;
+            });
+        }
+
+        Map<Integer, Integer> gScore = new HashMap<>();
+        Map<Integer, Integer> cameFrom = new HashMap<>();
+        Set<Integer> closedSet = new HashSet<>();
+        PriorityQueue<long[]> openSet = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+        gScore.put(START, 0);
+        openSet.add(new long[]{0, START});
+
+        while (!openSet.isEmpty()) {
+            int current = (int) openSet.poll()[1];
+            if (!closedSet.add(current)) {
+                continue;
+            }
+            if (current == GOAL) {
+                List<Integer> hops = new ArrayList<>();
+                for (Integer hop = GOAL; hop != null; hop = cameFrom.get(hop)) {
+                    hops.add(hop);
+                }
+                Collections.reverse(hops);
+                firstLegSource = startEdges.get(hops.get(1))[1];
+                return hops;
+            }
+
+            int g = gScore.get(current);
+            List<int[]> edges = new ArrayList<>();
+            if (current == START) {
+                for (Map.Entry<Integer, int[]> edge : startEdges.entrySet()) {
+                    edges.add(new int[]{edge.getKey(), edge.getValue()[0]});
+                }
+            } else {
+                int cluster = clusterOf(current);
+                int[] nodes = clusterNodes[cluster];
+                int index = indexOf(nodes, current);
+                for (int j = 0; j < nodes.length; j++) {
+                    edges.add(new int[]{nodes[j], clusterDistances[cluster][index * nodes.length + j]});
+                }
+                for (int crossing : crossingsOf(current)) {
+                    edges.add(new int[]{crossing, 1});
+                }
+                int[] toGoal = goalDistances.get(cluster);
+                if (toGoal != null) {
+                    edges.add(new int[]{GOAL, toGoal[index]});
+                }
+            }
+
+            for (int[] edge : edges) {
+                int next = edge[0];
+                if (edge[1] == UNREACHABLE || next == current || closedSet.contains(next)) {
+                    continue;
+                }
+                int nextG = g + edge[1];
+                if (nextG < gScore.getOrDefault(next, UNREACHABLE)) {
+                    gScore.put(next, nextG);
+                    cameFrom.put(next, current);
+                    int h = next == GOAL ? 0 : Math.max(0, manhattan(next, end) - 1);
+                    openSet.add(new long[]{nextG + h, next});
+                }
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Appends the single steps of one abstract edge to the path and returns the location it ends at.
+     * 'to' is a node location or 'GOAL'.
+     */
+    private int refineLeg(int from, int to, List<Integer> goals, List<Point> path) {
+        if (to != GOAL && clusterOf(to) != clusterOf(from)) {
+            path.add(pointOf(to));
+            return to;
+        }
+
+        int cluster = clusterOf(from);
+        searchCluster(cluster, List.of(from));
+        int target = to;
+        if (to == GOAL) {
+            int best = UNREACHABLE;
+            for (int goal : goals) {
+                if (clusterOf(goal) == cluster && localDistances[localIndex(goal)] < best) {
+                    best = localDistances[localIndex(goal)];
+                    target = goal;
+                }
+            }
+        }
+
+        int insertAt = path.size();
+        int originX = (cluster % clusterCols) * CLUSTER_SIZE;
+        int originY = (cluster / clusterCols) * CLUSTER_SIZE;
+        for (int local = localIndex(target); localParents[local] != local; local = localParents[local]) {
+            path.add(insertAt, new Point(originX + local % CLUSTER_SIZE, originY + local / CLUSTER_SIZE));
+        }
+        return target;
+    }
+
+    /** Adds the edges from a start location, reached at the given cost, to the nodes and goals of its cluster. */
+    private void addStartEdges(Map<Integer, int[]> startEdges, int source, int cost, List<Integer> goals) {
+        int cluster = clusterOf(source);
+        searchCluster(cluster, List.of(source));
+        for (int node : clusterNodes[cluster]) {
+            addStartEdge(startEdges, node, localDistances[localIndex(node)], cost, source);
+        }
+        for (int goal : goals) {
+            if (clusterOf(goal) == cluster) {
+                addStartEdge(startEdges, GOAL, localDistances[localIndex(goal)], cost, source);
+            }
+        }
+    }
+
+    private static void addStartEdge(Map<Integer, int[]> startEdges, int target, int distance, int cost, int source) {
+        if (distance != UNREACHABLE) {
+            int[] existing = startEdges.get(target);
+            if (existing == null || cost + distance < existing[0]) {
+                startEdges.put(target, new int[]{cost + distance, source});
+            }
+        }
+    }
+
+    /**
+     * Breadth-first search within a cluster from the given locations, filling 'localDistances' and 'localParents'.
+     * The sources themselves are always treated as passable.
+     */
+    private void searchCluster(int cluster, List<Integer> sources) {
+        int originX = (cluster % clusterCols) * CLUSTER_SIZE;
+        int originY = (cluster / clusterCols) * CLUSTER_SIZE;
+        int width = Math.min(CLUSTER_SIZE, numCols - originX);
+        int height = Math.min(CLUSTER_SIZE, numRows - originY);
+
+        Arrays.fill(localDistances, UNREACHABLE);
+        int head = 0;
+        int tail = 0;
+        for (int source : sources) {
+            int local = localIndex(source);
+            localDistances[local] = 0;
+            localParents[local] = local;
+            localQueue[tail++] = local;
+        }
+
+        while (head < tail) {
+            int local = localQueue[head++];
+            int lx = local % CLUSTER_SIZE;
+            int ly = local / CLUSTER_SIZE;
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int nx = CardinalNeighbors.x(lx, i);
+                int ny = CardinalNeighbors.y(ly, i);
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                    continue;
+                }
+                int neighbor = ny * CLUSTER_SIZE + nx;
+                if (localDistances[neighbor] == UNREACHABLE && passability.canPassThrough(world, originX + nx, originY + ny)) {
+                    localDistances[neighbor] = localDistances[local] + 1;
+                    localParents[neighbor] = local;
+                    localQueue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /** Returns the locations in neighboring clusters connected to a node by an entrance. */
+    private List<Integer> crossingsOf(int node) {
+        List<Integer> crossings = new ArrayList<>(2);
+        int cluster = clusterOf(node);
+        addCrossings(crossings, eastEntrances[cluster], node, 0);
+        addCrossings(crossings, southEntrances[cluster], node, 0);
+        if (cluster % clusterCols > 0) {
+            addCrossings(crossings, eastEntrances[cluster - 1], node, 1);
+        }
+        if (cluster >= clusterCols) {
+            addCrossings(crossings, southEntrances[cluster - clusterCols], node, 1);
+        }
+        return crossings;
+    }
+
+    private static void addCrossings(List<Integer> crossings, int[] entrances, int node, int side) {
+        for (int i = 0; i < entrances.length; i += 2) {
+            if (entrances[i + side] == node) {
+                crossings.add(entrances[i + 1 - side]);
+            }
+        }
+    }
+
+    /** Brings the cluster data up to date with the world. */
+    private void update() {
+        if (!built) {
+            for (int cluster = 0; cluster < clusterNodes.length; cluster++) {
+                eastEntrances[cluster] = computeEntrances(cluster, true);
+                southEntrances[cluster] = computeEntrances(cluster, false);
+            }
+            for (int cluster = 0; cluster < clusterNodes.length; cluster++) {
+                rebuildCluster(cluster);
+            }
+            built = true;
+            return;
+        }
+
+        // Borders first, since their entrances are the nodes of the clusters on both sides
+        for (int cluster : List.copyOf(dirtyList)) {
+            if (dirtyEastBorders[cluster]) {
+                dirtyEastBorders[cluster] = false;
+                int[] entrances = computeEntrances(cluster, true);
+                if (!Arrays.equals(entrances, eastEntrances[cluster])) {
+                    eastEntrances[cluster] = entrances;
+                    markCluster(cluster);
+                    markCluster(cluster + 1);
+                }
+            }
+            if (dirtySouthBorders[cluster]) {
+                dirtySouthBorders[cluster] = false;
+                int[] entrances = computeEntrances(cluster, false);
+                if (!Arrays.equals(entrances, southEntrances[cluster])) {
+                    southEntrances[cluster] = entrances;
+                    markCluster(cluster);
+                    markCluster(cluster + clusterCols);
+                }
+            }
+        }
+        for (int cluster : dirtyList) {
+            if (dirtyClusters[cluster]) {
+                dirtyClusters[cluster] = false;
+                rebuildCluster(cluster);
+            }
+            queued[cluster] = false;
+        }
+        dirtyList.clear();
+    }
+
+    /** Finds the entrances on the east or south border of a cluster, as (inside, outside) location pairs. */
+    private int[] computeEntrances(int cluster, boolean east) {
+        int cx = cluster % clusterCols;
+        int cy = cluster / clusterCols;
+        if (east ? cx + 1 >= clusterCols : cy + 1 >= clusterRows) {
+            return new int[0];
+        }
+
+        // The border runs along the cluster's last column or row
+        int length = east
+                ? Math.min(CLUSTER_SIZE, numRows - cy * CLUSTER_SIZE)
+                : Math.min(CLUSTER_SIZE, numCols - cx * CLUSTER_SIZE);
+        int insideX = east ? cx * CLUSTER_SIZE + CLUSTER_SIZE - 1 : cx * CLUSTER_SIZE;
+        int insideY = east ? cy * CLUSTER_SIZE : cy * CLUSTER_SIZE + CLUSTER_SIZE - 1;
+        int stepX = east ? 0 : 1;
+        int stepY = east ? 1 : 0;
+        int outsideDX = east ? 1 : 0;
+        int outsideDY = east ? 0 : 1;
+
+        List<Integer> entrances = new ArrayList<>();
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int x = insideX + i * stepX;
+            int y = insideY + i * stepY;
+            boolean open = i < length
+                    && passability.canPassThrough(world, x, y)
+                    && passability.canPassThrough(world, x + outsideDX, y + outsideDY);
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= LONG_ENTRANCE) {
+                    addEntrance(entrances, insideX + runStart * stepX, insideY + runStart * stepY, outsideDX, outsideDY);
+                    addEntrance(entrances, insideX + runEnd * stepX, insideY + runEnd * stepY, outsideDX, outsideDY);
+                } else {
+                    int middle = (runStart + runEnd) / 2;
+                    addEntrance(entrances, insideX + middle * stepX, insideY + middle * stepY, outsideDX, outsideDY);
+                }
+                runStart = -1;
+            }
+        }
+        return entrances.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void addEntrance(List<Integer> entrances, int x, int y, int outsideDX, int outsideDY) {
+        entrances.add(y * numCols + x);
+        entrances.add((y + outsideDY) * numCols + x + outsideDX);
+    }
+
+    /** Recomputes a cluster's nodes and the distances between them. */
+    private void rebuildCluster(int cluster) {
+        Set<Integer> nodes = new LinkedHashSet<>();
+        int[] east = eastEntrances[cluster];
+        int[] south = southEntrances[cluster];
+        int[] west = cluster % clusterCols > 0 ? eastEntrances[cluster - 1] : new int[0];
+        int[] north = cluster >= clusterCols ? southEntrances[cluster - clusterCols] : new int[0];
+        for (int i = 0; i < east.length; i += 2) {
+            nodes.add(east[i]);
+        }
+        for (int i = 0; i < south.length; i += 2) {
+            nodes.add(south[i]);
+        }
+        for (int i = 1; i < west.length; i += 2) {
+            nodes.add(west[i]);
+        }
+        for (int i = 1; i < north.length; i += 2) {
+            nodes.add(north[i]);
+        }
+
+        int[] nodeArray = nodes.stream().mapToInt(Integer::intValue).toArray();
+        int[] distances = new int[nodeArray.length * nodeArray.length];
+        for (int i = 0; i < nodeArray.length; i++) {
+            searchCluster(cluster, List.of(nodeArray[i]));
+            for (int j = 0; j < nodeArray.length; j++) {
+                distances[i * nodeArray.length + j] = localDistances[localIndex(nodeArray[j])];
+            }
+        }
+        clusterNodes[cluster] = nodeArray;
+        clusterDistances[cluster] = distances;
+    }
+
+    private void markCluster(int cluster) {
+        dirtyClusters[cluster] = true;
+        enqueue(cluster);
+    }
+
+    private void markEastBorder(int cluster) {
+        dirtyEastBorders[cluster] = true;
+        enqueue(cluster);
+    }
+
+    private void markSouthBorder(int cluster) {
+        dirtySouthBorders[cluster] = true;
+        enqueue(cluster);
+    }
+
+    private void enqueue(int cluster) {
+        if (!queued[cluster]) {
+            queued[cluster] = true;
+            dirtyList.add(cluster);
+        }
+    }
+
+    private int clusterOf(int cell) {
+        return (cell / numCols / CLUSTER_SIZE) * clusterCols + (cell % numCols) / CLUSTER_SIZE;
+    }
+
+    /** Returns the index of a location within its cluster. */
+    private int localIndex(int cell) {
+        return (cell / numCols % CLUSTER_SIZE) * CLUSTER_SIZE + cell % numCols % CLUSTER_SIZE;
+    }
+
+    private Point pointOf(int cell) {
+        return new Point(cell % numCols, cell / numCols);
+    }
+
+    private int manhattan(int cell, Point point) {
+        return Math.abs(cell % numCols - point.x) + Math.abs(cell / numCols - point.y);
+    }
+
+    private static int indexOf(int[] nodes, int node) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] == node) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -12,7 +12,12 @@ public class House extends Entity implements Transformable {
 
     @Override
     public boolean transform(World world, ImageLibrary imageLibrary, EventScheduler scheduler) {
-        boolean shouldTransform = PathingStrategy.CARDINAL_NEIGHBORS.apply(getPosition()).map(point -> (world.getOccupant(point).isPresent() && world.getOccupant(point).get() instanceof BadDude)).reduce(false, (a,b) -> a || b);
+        boolean shouldTransform = false;
+        for (int direction = 0; direction < CardinalNeighbors.COUNT; direction++) {
+            int x = CardinalNeighbors.x(getPosition().x, direction);
+            int y = CardinalNeighbors.y(getPosition().y, direction);
+            shouldTransform |= world.getSlotEntity(world.occupantSlotAt(x, y)) instanceof BadDude;
+        }
         if (shouldTransform) {
             Explosion explosion = new Explosion(Explosion.EXPLOSION_KEY, getPosition(), imageLibrary.get(Explosion.EXPLOSION_KEY));
 
@@ -0,0 +1,94 @@
+import processing.core.PConstants;
+import processing.core.PImage;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Images packed side by side into a single image, each enlarged by a whole factor ahead of time.
+ * Drawing an image's region of the atlas at the region's size needs no scaling, and renderers that upload
+ * images as textures only have one to bind. Images are scaled by repeating pixels, like drawing without smoothing.
+ * Build instances through 'ImageLibrary.buildAtlas'.
+ */
+public final class ImageAtlas {
+    /** Widest the atlas gets; images are packed into rows no wider than this, unless a single image is wider. */
+    public static final int MAX_WIDTH = 2048;
+
+    /** The packed, scaled images. */
+    private final PImage image;
+
+    /** Factor each image was enlarged by. */
+    private final int scale;
+
+    /** Where each packed image is in 'image', keyed by identity since images don't define equality. */
+    private final Map<PImage, Region> regions;
+
+    public ImageAtlas(List<PImage> images, int scale) {
+        if (scale < 1) {
+            throw new IllegalArgumentException("Atlas scale must be positive: " + scale);
+        }
+        this.scale = scale;
+        this.regions = new IdentityHashMap<>();
+
+        // Place images left to right in rows as tall as their tallest image
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        int width = 0;
+        for (PImage source : images) {
+            if (regions.containsKey(source)) {
+                continue;
+            }
+            int regionWidth = source.width * scale;
+            int regionHeight = source.height * scale;
+            if (x > 0 && x + regionWidth > MAX_WIDTH) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            regions.put(source, new Region(x, y, regionWidth, regionHeight));
+            x += regionWidth;
+            rowHeight = Math.max(rowHeight, regionHeight);
+            width = Math.max(width, x);
+        }
+
+        this.image = new PImage(Math.max(width, 1), Math.max(y + rowHeight, 1), PConstants.ARGB);
+        image.loadPixels();
+        for (Map.Entry<PImage, Region> entry : regions.entrySet()) {
+            copyScaled(entry.getKey(), entry.getValue());
+        }
+        image.updatePixels();
+    }
+
+    /** Returns where the given image is in the atlas, or null if it wasn't packed. */
+    public Region regionOf(PImage source) {
+        return regions.get(source);
+    }
+
+    public PImage getImage() {
+        return image;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /** Writes an image into its region, repeating each pixel 'scale' times in both directions. */
+    private void copyScaled(PImage source, Region region) {
+        source.loadPixels();
+        // Pixels of images without alpha may have any alpha bits, but are drawn opaque
+        int opaque = source.format == PConstants.ARGB ? 0 : 0xff000000;
+        for (int row = 0; row < region.height(); row++) {
+            int sourceRow = row / scale * source.width;
+            int targetRow = (region.y() + row) * image.width + region.x();
+            for (int col = 0; col < region.width(); col++) {
+                image.pixels[targetRow + col] = source.pixels[sourceRow + col / scale] | opaque;
+            }
+        }
+    }
+
+    /** A rectangle of the atlas, in atlas pixels. */
+    public record Region(int x, int y, int width, int height) {
+    }
+}
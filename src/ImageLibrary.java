@@ -18,6 +18,9 @@ public class ImageLibrary {
     /** The list of images associated with invalid keys */
     private final List<PImage> defaultImages;
 
+    /** Every image of the library packed and pre-scaled for drawing, or null until 'buildAtlas' is called. */
+    private ImageAtlas atlas;
+
     public ImageLibrary(PImage defaultImage) {
         imagesMap = new HashMap<>();
         defaultImages = List.of(defaultImage);
@@ -43,6 +46,21 @@ public class ImageLibrary {
         return images.get(index % images.size());
     }
 
+    /**
+     * Packs every image loaded so far, and the default image, into an atlas scaled by the given factor.
+     * Images are packed in key order, so the layout doesn't depend on hashing.
+     */
+    public ImageAtlas buildAtlas(int scale) {
+        List<PImage> images = new ArrayList<>(defaultImages);
+        imagesMap.keySet().stream().sorted().forEach(key -> images.addAll(imagesMap.get(key)));
+        atlas = new ImageAtlas(images, scale);
+        return atlas;
+    }
+
+    public ImageAtlas getAtlas() {
+        return atlas;
+    }
+
     /** Initializes the library from a text file */
     public void loadFromFile(String filePath, PApplet screen) {
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
@@ -0,0 +1,5 @@
+/** An operation on a pair of grid coordinates, so callers can visit locations without allocating points. */
+@FunctionalInterface
+public interface IntBinaryConsumer {
+    void accept(int x, int y);
+}
@@ -0,0 +1,167 @@
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Jump Point Search adapted to 4-connected grids with uniform costs.
+ * Among equally short paths, only those that move vertically as early as possible are considered:
+ * a horizontal run only turns where an obstacle forces it to, and a vertical run stops wherever a
+ * horizontal run from it would reach something interesting. Runs are scanned without touching the
+ * open set, so A* only handles the few points where paths can turn.
+ * Respects 'canPassThrough' and 'withinReach' like 'AStarPathingStrategy' and returns a shortest path,
+ * though not necessarily the one A* picks. 'potentialNeighbors' is not consulted; moves are always cardinal.
+ */
+public class JumpPointPathingStrategy implements PathingStrategy {
+
+    public List<Point> computePath(
+            Point start,
+            Point end,
+            Predicate<Point> canPassThrough,
+            BiPredicate<Point, Point> withinReach,
+            Function<Point, Stream<Point>> potentialNeighbors
+    ) {
+        if (withinReach.test(end, start)) {
+            return new ArrayList<>();
+        }
+
+        Search search = new Search(end, canPassThrough, withinReach);
+        Map<Point, Point> cameFrom = new HashMap<>();
+        Map<Point, Integer> gScore = new HashMap<>();
+        Set<Point> closedSet = new HashSet<>();
+        Queue<Node> openSet = new PriorityQueue<>(Comparator.comparingInt(Node::fScore));
+
+        gScore.put(start, 0);
+        openSet.add(new Node(start, start.manhattanDistanceTo(end)));
+
+        while (!openSet.isEmpty()) {
+            Point current = openSet.poll().point();
+            if (!closedSet.add(current)) {
+                continue;
+            }
+            if (!current.equals(start) && withinReach.test(end, current)) {
+                return buildPath(cameFrom, current);
+            }
+
+            for (Point jumpPoint : search.successors(current, cameFrom.get(current))) {
+                if (closedSet.contains(jumpPoint)) {
+                    continue;
+                }
+                int g = gScore.get(current) + current.manhattanDistanceTo(jumpPoint);
+                if (g < gScore.getOrDefault(jumpPoint, Integer.MAX_VALUE)) {
+                    cameFrom.put(jumpPoint, current);
+                    gScore.put(jumpPoint, g);
+                    openSet.add(new Node(jumpPoint, g + jumpPoint.manhattanDistanceTo(end)));
+                }
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /** Expands the straight runs between jump points into single steps, excluding the start. */
+    private static List<Point> buildPath(Map<Point, Point> cameFrom, Point current) {
+        List<Point> path = new ArrayList<>();
+        while (cameFrom.containsKey(current)) {
+            Point previous = cameFrom.get(current);
+            int dx = Integer.signum(previous.x - current.x);
+            int dy = Integer.signum(previous.y - current.y);
+            for (Point step = current; !step.equals(previous); step = new Point(step.x + dx, step.y + dy)) {
+                path.add(step);
+            }
+            current = previous;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /** An open set entry. A point may be queued more than once; stale entries are skipped when polled. */
+    private record Node(Point point, int fScore) {
+    }
+
+    /** The jump logic for a single search. */
+    private static final class Search {
+        private final Point end;
+        private final Predicate<Point> canPassThrough;
+        private final BiPredicate<Point, Point> withinReach;
+
+        private Search(Point end, Predicate<Point> canPassThrough, BiPredicate<Point, Point> withinReach) {
+            this.end = end;
+            this.canPassThrough = canPassThrough;
+            this.withinReach = withinReach;
+        }
+
+        /** Returns the jump points reachable from a point, pruning directions by how the point was reached. */
+        private List<Point> successors(Point point, Point parent) {
+            List<Point> successors = new ArrayList<>(4);
+            int dx = parent == null ? 0 : Integer.signum(point.x - parent.x);
+            int dy = parent == null ? 0 : Integer.signum(point.y - parent.y);
+
+            if (dx == 0) {
+                // Vertical runs and the start may turn either way
+                addIfPresent(successors, jumpHorizontal(point.x, point.y, 1));
+                addIfPresent(successors, jumpHorizontal(point.x, point.y, -1));
+                if (dy != 0) {
+                    addIfPresent(successors, jumpVertical(point.x, point.y, dy));
+                } else {
+                    addIfPresent(successors, jumpVertical(point.x, point.y, -1));
+                    addIfPresent(successors, jumpVertical(point.x, point.y, 1));
+                }
+            } else {
+                addIfPresent(successors, jumpHorizontal(point.x, point.y, dx));
+                for (int turn = -1; turn <= 1; turn += 2) {
+                    if (isForced(point.x, point.y, dx, turn)) {
+                        addIfPresent(successors, jumpVertical(point.x, point.y, turn));
+                    }
+                }
+            }
+            return successors;
+        }
+
+        /** Scans horizontally and returns the first goal or point with a forced turn, or null. */
+        private Point jumpHorizontal(int x, int y, int dx) {
+            while (true) {
+                x += dx;
+                if (!passable(x, y)) {
+                    return null;
+                }
+                Point point = new Point(x, y);
+                if (withinReach.test(end, point) || isForced(x, y, dx, -1) || isForced(x, y, dx, 1)) {
+                    return point;
+                }
+            }
+        }
+
+        /** Scans vertically and returns the first goal or point from which a horizontal scan finds a jump point, or null. */
+        private Point jumpVertical(int x, int y, int dy) {
+            while (true) {
+                y += dy;
+                if (!passable(x, y)) {
+                    return null;
+                }
+                Point point = new Point(x, y);
+                if (withinReach.test(end, point) || jumpHorizontal(x, y, 1) != null || jumpHorizontal(x, y, -1) != null) {
+                    return point;
+                }
+            }
+        }
+
+        /**
+         * Returns 'true' if turning vertically (by 'dy') at a point of a horizontal run leads somewhere that
+         * turning one step earlier couldn't reach as cheaply.
+         */
+        private boolean isForced(int x, int y, int dx, int dy) {
+            return passable(x, y + dy) && !passable(x - dx, y + dy);
+        }
+
+        private boolean passable(int x, int y) {
+            return canPassThrough.test(new Point(x, y));
+        }
+
+        private static void addIfPresent(List<Point> points, Point point) {
+            if (point != null) {
+                points.add(point);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Lower bounds on path lengths from precomputed distances to a few landmark locations (ALT).
+ * Distances are measured over the static terrain only, water and houses, which every mover has to go around;
+ * other occupants only make paths longer, so for any landmark L, '|d(L, a) - d(L, b)|' never overestimates
+ * the length of a path between 'a' and 'b'. Landmarks are spread out by picking, one at a time, the location
+ * farthest from those already picked.
+ * When the static terrain changes the tables are rebuilt on a background thread from a copy of the terrain.
+ * Until the new tables are ready, 'getTables' returns null, since the old ones could overestimate.
+ * Obtain instances through 'World.getLandmarkHeuristic'.
+ */
+public final class LandmarkHeuristic implements OccupancyListener {
+    /** Number of landmarks picked by 'World.getLandmarkHeuristic'. */
+    public static final int DEFAULT_LANDMARK_COUNT = 8;
+
+    /** Distance of locations a landmark can't reach. */
+    private static final int UNREACHABLE = -1;
+
+    /** Thread shared by every instance for rebuilding tables. */
+    private static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "landmark-heuristic");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final World world;
+    private final int numRows;
+    private final int numCols;
+    private final int landmarkCount;
+    private final Executor executor;
+
+    /** Which locations hold static terrain, as last seen on the world's thread. */
+    private final boolean[] obstacles;
+
+    /** Incremented on every change of 'obstacles'. */
+    private int version;
+
+    /** Tables matching 'obstacles', or null while they're being rebuilt. */
+    private Tables tables;
+
+    /** Whether a rebuild has been handed to the executor and hasn't been collected yet. */
+    private boolean rebuilding;
+
+    /** The last finished rebuild, written by the executor and collected on the world's thread. */
+    private volatile Tables finished;
+
+    /** Builds the tables for the world's current terrain and rebuilds them in the background after changes. */
+    public LandmarkHeuristic(World world, int landmarkCount) {
+        this(world, landmarkCount, BACKGROUND);
+    }
+
+    /** Like the other constructor, but runs rebuilds with the given executor. */
+    public LandmarkHeuristic(World world, int landmarkCount, Executor executor) {
+        if (landmarkCount <= 0) {
+            throw new IllegalArgumentException("Landmark count must be positive: " + landmarkCount);
+        }
+        this.world = world;
+        this.numRows = world.getNumRows();
+        this.numCols = world.getNumCols();
+        this.landmarkCount = landmarkCount;
+        this.executor = executor;
+        this.obstacles = new boolean[numRows * numCols];
+        for (int y = 0; y < numRows; y++) {
+            for (int x = 0; x < numCols; x++) {
+                obstacles[y * numCols + x] = isStatic(world.getSlotEntity(world.occupantSlotAt(x, y)));
+            }
+        }
+        this.version = 0;
+        this.tables = build(obstacles.clone(), version);
+    }
+
+    /** Returns 'true' if the given occupant (or null) is part of the static terrain. */
+    public static boolean isStatic(Entity occupant) {
+        return occupant instanceof Water || occupant instanceof House;
+    }
+
+    /** Returns the tables for the current terrain, or null while they're being rebuilt. Call from the world's thread. */
+    public Tables getTables() {
+        Tables result = finished;
+        if (rebuilding && result != null) {
+            rebuilding = false;
+            finished = null;
+            if (result.version == version) {
+                tables = result;
+            } else {
+                // The terrain changed again during the rebuild
+                startRebuild();
+            }
+        }
+        return tables;
+    }
+
+    @Override
+    public void occupancyChanged(int x, int y) {
+        int cell = y * numCols + x;
+        boolean obstacle = isStatic(world.getSlotEntity(world.occupantSlotAt(x, y)));
+        if (obstacle == obstacles[cell]) {
+            return;
+        }
+        obstacles[cell] = obstacle;
+        version++;
+        tables = null;
+        if (!rebuilding) {
+            startRebuild();
+        }
+    }
+
+    private void startRebuild() {
+        rebuilding = true;
+        boolean[] terrain = obstacles.clone();
+        int terrainVersion = version;
+        executor.execute(() -> finished = build(terrain, terrainVersion));
+    }
+
+    /** Picks landmarks on the given terrain and measures every location's distance to each. */
+    private Tables build(boolean[] terrain, int terrainVersion) {
+        int area = numRows * numCols;
+        int[] distances = new int[landmarkCount * area];
+        int[] nearest = new int[area];
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+        int[] queue = new int[area];
+
+        // Start from the location farthest from the first open one, then from the farthest from all picked so far
+        int first = 0;
+        while (first < area && terrain[first]) {
+            first++;
+        }
+        if (first == area) {
+            Arrays.fill(distances, UNREACHABLE);
+            return new Tables(area, landmarkCount, distances, terrain, terrainVersion);
+        }
+        int[] scratch = new int[area];
+        measure(terrain, first, scratch, 0, queue);
+        int landmark = farthest(first, scratch);
+        for (int i = 0; i < landmarkCount; i++) {
+            measure(terrain, landmark, distances, i * area, queue);
+            for (int cell = 0; cell < area; cell++) {
+                int distance = distances[i * area + cell];
+                if (distance != UNREACHABLE) {
+                    nearest[cell] = Math.min(nearest[cell], distance);
+                }
+            }
+            landmark = farthest(landmark, nearest);
+        }
+        return new Tables(area, landmarkCount, distances, terrain, terrainVersion);
+    }
+
+    /** Returns the location with the largest distance among the reachable ones. */
+    private static int farthest(int fallback, int[] distances) {
+        int best = fallback;
+        int bestDistance = -1;
+        for (int cell = 0; cell < distances.length; cell++) {
+            int distance = distances[cell];
+            if (distance != UNREACHABLE && distance != Integer.MAX_VALUE && distance > bestDistance) {
+                best = cell;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /** Writes the breadth-first distance from a location to every other one, starting at 'offset'. */
+    private void measure(boolean[] terrain, int source, int[] distances, int offset, int[] queue) {
+        int area = numRows * numCols;
+        Arrays.fill(distances, offset, offset + area, UNREACHABLE);
+        distances[offset + source] = 0;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int current = queue[head++];
+            int x = current % numCols;
+            int y = current / numCols;
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int nx = CardinalNeighbors.x(x, i);
+                int ny = CardinalNeighbors.y(y, i);
+                if (nx < 0 || nx >= numCols || ny < 0 || ny >= numRows) {
+                    continue;
+                }
+                int neighbor = ny * numCols + nx;
+                if (!terrain[neighbor] && distances[offset + neighbor] == UNREACHABLE) {
+                    distances[offset + neighbor] = distances[offset + current] + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+
+    /** Landmark distances for one version of the terrain. Immutable once built. */
+    public static final class Tables {
+        private final int area;
+        private final int landmarkCount;
+
+        /** Distance from each landmark to each location, 'area' entries per landmark, or 'UNREACHABLE'. */
+        private final int[] distances;
+
+        /** Which locations hold static terrain. */
+        private final boolean[] terrain;
+
+        private final int version;
+
+        private Tables(int area, int landmarkCount, int[] distances, boolean[] terrain, int version) {
+            this.area = area;
+            this.landmarkCount = landmarkCount;
+            this.distances = distances;
+            this.terrain = terrain;
+            this.version = version;
+        }
+
+        /** Returns 'true' if the given location holds static terrain. */
+        public boolean isObstacle(int cell) {
+            return terrain[cell];
+        }
+
+        /**
+         * Returns a lower bound on the length of a path between two open locations, given as 'y * numCols + x'.
+         * Locations the terrain separates get the number of locations in the world, more than any path.
+         */
+        public int lowerBound(int from, int to) {
+            int bound = 0;
+            for (int i = 0; i < landmarkCount; i++) {
+                int fromDistance = distances[i * area + from];
+                int toDistance = distances[i * area + to];
+                if ((fromDistance == UNREACHABLE) != (toDistance == UNREACHABLE)) {
+                    return area;
+                }
+                bound = Math.max(bound, Math.abs(fromDistance - toDistance));
+            }
+            return bound;
+        }
+    }
+}
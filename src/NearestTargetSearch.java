@@ -0,0 +1,113 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Breadth-first search from a mover for the nearest entity of some kinds by path length,
+ * which also yields the first step toward it.
+ * Search state lives in reusable primitive arrays indexed by 'y * numCols + x', stamped with a generation
+ * like 'GridAStarPathingStrategy', so nothing is cleared between searches.
+ * Obtain the shared instance through 'World.findNearestReachable'.
+ */
+public final class NearestTargetSearch {
+
+    private final int numRows;
+    private final int numCols;
+
+    /** Locations visited by the current search have the current 'generation'. */
+    private final int[] generations;
+    private int generation;
+
+    /** Previous location on the path from the start. */
+    private final int[] cameFrom;
+
+    /** Visited locations in the order they were reached. */
+    private final int[] queue;
+
+    public NearestTargetSearch(int numRows, int numCols) {
+        if ((long) numRows * numCols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Grid of %d by %d locations is too large", numCols, numRows));
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        int area = numRows * numCols;
+        this.generations = new int[area];
+        this.generation = 0;
+        this.cameFrom = new int[area];
+        this.queue = new int[area];
+    }
+
+    /**
+     * Returns the entity of the given kind(s) with the shortest path from the start to a location adjacent to it,
+     * along with the first step of that path. Ties go to the first found, exploring neighbors in cardinal order.
+     */
+    public Optional<ReachableTarget> find(World world, Point start, List<Class<? extends Entity>> kinds, Passability passability) {
+        nextGeneration();
+        int startCell = start.y * numCols + start.x;
+        generations[startCell] = generation;
+        cameFrom[startCell] = startCell;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = startCell;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int x = current % numCols;
+            int y = current / numCols;
+
+            // Targets next to this location are at least as near as any found later
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int nx = CardinalNeighbors.x(x, i);
+                int ny = CardinalNeighbors.y(y, i);
+                if (!world.inBounds(nx, ny)) {
+                    continue;
+                }
+                Entity occupant = world.getSlotEntity(world.occupantSlotAt(nx, ny));
+                if (occupant != null && isKind(occupant, kinds)) {
+                    return Optional.of(new ReachableTarget(occupant, firstStep(current, startCell)));
+                }
+            }
+
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int nx = CardinalNeighbors.x(x, i);
+                int ny = CardinalNeighbors.y(y, i);
+                if (!passability.canPassThrough(world, nx, ny)) {
+                    continue;
+                }
+                int neighbor = ny * numCols + nx;
+                if (generations[neighbor] != generation) {
+                    generations[neighbor] = generation;
+                    cameFrom[neighbor] = current;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Returns the location after the start on the path to the given one, or the start itself. */
+    private Point firstStep(int cell, int startCell) {
+        while (cell != startCell && cameFrom[cell] != startCell) {
+            cell = cameFrom[cell];
+        }
+        return new Point(cell % numCols, cell / numCols);
+    }
+
+    private static boolean isKind(Entity entity, List<Class<? extends Entity>> kinds) {
+        for (Class<? extends Entity> kind : kinds) {
+            if (kind.isInstance(entity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == 0) {
+            // Stamps wrapped around; forget every old stamp
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/** Receives notifications of changes to a world's occupancy grid. */
+public interface OccupancyListener {
+    /** Called after the occupant at the given location changed. */
+    void occupancyChanged(int x, int y);
+}
@@ -0,0 +1,317 @@
+import java.util.Arrays;
+
+/**
+ * Stores scheduled events in parallel primitive arrays instead of 'Event' objects.
+ * An event is an integer id into the arrays; its action is an opcode with an optional repeat count.
+ * Ids and entity slots are recycled, so a steady stream of scheduling allocates nothing once the arrays are large enough.
+ * Events are ordered by time and then by scheduling order, like the other event queues.
+ */
+public final class PackedEventQueue {
+    /** Opcode of an 'Animation' of the entity. */
+    public static final byte ANIMATION = 0;
+
+    /** Opcode of a 'Behavior' of the entity. */
+    public static final byte BEHAVIOR = 1;
+
+    /** Opcode of any other 'Action', which is kept as an object. */
+    public static final byte ACTION = 2;
+
+    /** Id, index or slot value meaning "none". */
+    public static final int NONE = -1;
+
+    // Per-event data, indexed by event id
+    private double[] times;
+    private long[] sequences;
+    private int[] entitySlots;
+    private byte[] opcodes;
+    private int[] repeatCounts;
+    private Action[] actions;
+    private int[] heapIndices;
+    private int[] nextOfEntity;
+    private int[] previousOfEntity;
+
+    /** Released event ids, linked through 'nextOfEntity'. */
+    private int freeEvent;
+    private int eventCapacityUsed;
+
+    /** Heap-ordered event ids. Only the first 'size' elements are valid. */
+    private int[] heap;
+    private int size;
+
+    // Per-entity data, indexed by scheduler slot
+    private Entity[] slotEntities;
+    private World[] slotWorlds;
+    private ImageLibrary[] slotImageLibraries;
+    private int[] firstOfEntity;
+
+    /** Released slots, linked through 'firstOfEntity'. */
+    private int freeSlot;
+    private int slotCapacityUsed;
+
+    /** Number of events scheduled so far. */
+    private long scheduledCount;
+
+    public PackedEventQueue() {
+        int events = 256;
+        times = new double[events];
+        sequences = new long[events];
+        entitySlots = new int[events];
+        opcodes = new byte[events];
+        repeatCounts = new int[events];
+        actions = new Action[events];
+        heapIndices = new int[events];
+        nextOfEntity = new int[events];
+        previousOfEntity = new int[events];
+        freeEvent = NONE;
+        heap = new int[events];
+
+        int slots = 64;
+        slotEntities = new Entity[slots];
+        slotWorlds = new World[slots];
+        slotImageLibraries = new ImageLibrary[slots];
+        firstOfEntity = new int[slots];
+        freeSlot = NONE;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Returns the id of the earliest event, or 'NONE'. */
+    public int peek() {
+        return size == 0 ? NONE : heap[0];
+    }
+
+    /** Queues an event and returns its id. 'world' and 'imageLibrary' are only used by behaviors. */
+    public int add(Entity entity, double time, byte opcode, int repeatCount, Action action, World world, ImageLibrary imageLibrary) {
+        int slot = slotOf(entity);
+        if (opcode == BEHAVIOR) {
+            slotWorlds[slot] = world;
+            slotImageLibraries[slot] = imageLibrary;
+        }
+
+        int id = allocateEvent();
+        times[id] = time;
+        sequences[id] = scheduledCount++;
+        entitySlots[id] = slot;
+        opcodes[id] = opcode;
+        repeatCounts[id] = repeatCount;
+        actions[id] = action;
+
+        // Link at the front of the entity's event list
+        int first = firstOfEntity[slot];
+        previousOfEntity[id] = NONE;
+        nextOfEntity[id] = first;
+        if (first != NONE) {
+            previousOfEntity[first] = id;
+        }
+        firstOfEntity[slot] = id;
+
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        siftUp(size++, id);
+        return id;
+    }
+
+    /** Removes an event from the queue and its entity's list, and drops the references it holds. */
+    public void remove(int id) {
+        detach(id);
+        release(id);
+    }
+
+    /**
+     * Removes the earliest event and returns its id, or 'NONE'. Its data stays readable until it is passed to
+     * 'release', which must happen before the next 'add'.
+     */
+    public int poll() {
+        if (size == 0) {
+            return NONE;
+        }
+        int id = heap[0];
+        detach(id);
+        return id;
+    }
+
+    /**
+     * Drops the references held by a removed event, and by its entity's slot if that was the entity's last event,
+     * so the queue doesn't keep removed entities, worlds or actions reachable. They read as null afterward.
+     */
+    public void release(int id) {
+        actions[id] = null;
+        int slot = entitySlots[id];
+        if (slotEntities[slot].getSchedulerSlot() != slot) {
+            slotEntities[slot] = null;
+            slotWorlds[slot] = null;
+            slotImageLibraries[slot] = null;
+        }
+    }
+
+    /** Removes every event of the given entity. */
+    public void removeAll(Entity entity) {
+        int slot = entity.getSchedulerSlot();
+        if (slot == NONE || slotEntities[slot] != entity) {
+            return;
+        }
+        // The slot is released when its last event is removed
+        while (entity.getSchedulerSlot() == slot) {
+            remove(firstOfEntity[slot]);
+        }
+    }
+
+    public double getTime(int id) {
+        return times[id];
+    }
+
+    public byte getOpcode(int id) {
+        return opcodes[id];
+    }
+
+    public int getRepeatCount(int id) {
+        return repeatCounts[id];
+    }
+
+    public Action getAction(int id) {
+        return actions[id];
+    }
+
+    public Entity getEntity(int id) {
+        return slotEntities[entitySlots[id]];
+    }
+
+    public World getWorld(int id) {
+        return slotWorlds[entitySlots[id]];
+    }
+
+    public ImageLibrary getImageLibrary(int id) {
+        return slotImageLibraries[entitySlots[id]];
+    }
+
+    /** Returns the scheduler slot of an entity, assigning a free one if it doesn't have one yet. */
+    private int slotOf(Entity entity) {
+        int slot = entity.getSchedulerSlot();
+        if (slot != NONE && slotEntities[slot] == entity) {
+            return slot;
+        }
+
+        if (freeSlot != NONE) {
+            slot = freeSlot;
+            freeSlot = firstOfEntity[slot];
+        } else {
+            if (slotCapacityUsed == slotEntities.length) {
+                int capacity = slotCapacityUsed * 2;
+                slotEntities = Arrays.copyOf(slotEntities, capacity);
+                slotWorlds = Arrays.copyOf(slotWorlds, capacity);
+                slotImageLibraries = Arrays.copyOf(slotImageLibraries, capacity);
+                firstOfEntity = Arrays.copyOf(firstOfEntity, capacity);
+            }
+            slot = slotCapacityUsed++;
+        }
+
+        slotEntities[slot] = entity;
+        firstOfEntity[slot] = NONE;
+        entity.setSchedulerSlot(slot);
+        return slot;
+    }
+
+    /** Removes an event from the heap and its entity's list, and puts its id on the free list. */
+    private void detach(int id) {
+        removeAt(heapIndices[id]);
+        unlink(id);
+        nextOfEntity[id] = freeEvent;
+        freeEvent = id;
+    }
+
+    /** Removes an event from its entity's list, freeing the entity's slot when the list becomes empty. */
+    private void unlink(int id) {
+        int slot = entitySlots[id];
+        int previous = previousOfEntity[id];
+        int next = nextOfEntity[id];
+        if (previous != NONE) {
+            nextOfEntity[previous] = next;
+        } else {
+            firstOfEntity[slot] = next;
+        }
+        if (next != NONE) {
+            previousOfEntity[next] = previous;
+        }
+
+        if (firstOfEntity[slot] == NONE) {
+            // Keep 'slotEntities' etc. readable for the event being dispatched; 'release' clears them
+            slotEntities[slot].setSchedulerSlot(NONE);
+            firstOfEntity[slot] = freeSlot;
+            freeSlot = slot;
+        }
+    }
+
+    private int allocateEvent() {
+        if (freeEvent != NONE) {
+            int id = freeEvent;
+            freeEvent = nextOfEntity[id];
+            return id;
+        }
+
+        if (eventCapacityUsed == times.length) {
+            int capacity = eventCapacityUsed * 2;
+            times = Arrays.copyOf(times, capacity);
+            sequences = Arrays.copyOf(sequences, capacity);
+            entitySlots = Arrays.copyOf(entitySlots, capacity);
+            opcodes = Arrays.copyOf(opcodes, capacity);
+            repeatCounts = Arrays.copyOf(repeatCounts, capacity);
+            actions = Arrays.copyOf(actions, capacity);
+            heapIndices = Arrays.copyOf(heapIndices, capacity);
+            nextOfEntity = Arrays.copyOf(nextOfEntity, capacity);
+            previousOfEntity = Arrays.copyOf(previousOfEntity, capacity);
+        }
+        return eventCapacityUsed++;
+    }
+
+    private void removeAt(int index) {
+        int last = heap[--size];
+        if (index < size) {
+            siftDown(index, last);
+            if (heap[index] == last) {
+                siftUp(index, last);
+            }
+        }
+    }
+
+    private boolean before(int a, int b) {
+        return times[a] < times[b] || (times[a] == times[b] && sequences[a] < sequences[b]);
+    }
+
+    private void siftUp(int index, int id) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            int parentId = heap[parent];
+            if (!before(id, parentId)) {
+                break;
+            }
+            place(index, parentId);
+            index = parent;
+        }
+        place(index, id);
+    }
+
+    private void siftDown(int index, int id) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && before(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!before(heap[child], id)) {
+                break;
+            }
+            place(index, heap[child]);
+            index = child;
+        }
+        place(index, id);
+    }
+
+    private void place(int index, int id) {
+        heap[index] = id;
+        heapIndices[id] = index;
+    }
+}
@@ -0,0 +1,30 @@
+/** The rules movers use to decide which world locations they can move through. */
+public enum Passability {
+    /** Only empty locations. Used by fairies. */
+    OPEN,
+
+    /** Empty locations and stumps, which get trampled. Used by dudes. */
+    OPEN_OR_STUMP,
+
+    /** Empty locations and fairies, which get run over. Used by cars. */
+    OPEN_OR_FAIRY;
+
+    /** Returns 'true' if a location holding the given occupant (or null) can be moved through. */
+    public boolean allows(Entity occupant) {
+        return switch (this) {
+            case OPEN -> occupant == null;
+            case OPEN_OR_STUMP -> occupant == null || occupant instanceof Stump;
+            case OPEN_OR_FAIRY -> occupant == null || occupant instanceof Fairy;
+        };
+    }
+
+    /** Returns 'true' if the given coordinates are within the world and can be moved through. Does not allocate. */
+    public boolean canPassThrough(World world, int x, int y) {
+        return world.inBounds(x, y) && allows(world.getSlotEntity(world.occupantSlotAt(x, y)));
+    }
+
+    /** Returns 'true' if the given point is within the world and can be moved through. */
+    public boolean canPassThrough(World world, Point point) {
+        return canPassThrough(world, point.x, point.y);
+    }
+}
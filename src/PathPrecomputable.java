@@ -0,0 +1,14 @@
+/** A mover whose next path can be planned before its behavior runs, so several can be planned in parallel. */
+public interface PathPrecomputable {
+    /**
+     * Returns the destination the mover's next behavior will path toward, or null if it won't search for a path.
+     * Must not change the state of the mover or the world.
+     */
+    Point peekDestination(World world);
+
+    /** Returns the locations the mover can move through. */
+    Passability getPassability();
+
+    /** Returns the path the mover follows, which precomputed plans are handed to. */
+    PlannedPath getPlannedPath();
+}
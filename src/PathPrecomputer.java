@@ -0,0 +1,109 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Plans the paths of movers whose behaviors run at the same timestamp in parallel. The world thread waits
+ * for the whole batch, so the workers read the live occupancy grid without copying it, and nothing changes
+ * it until they are done. Plans are handed to the movers serially in event order, so results don't depend
+ * on thread scheduling. A mover's 'PlannedPath' still checks each step against the world when it is taken,
+ * so a plan invalidated by an earlier mover of the same batch is replanned serially.
+ * Only movers using the world's shared A* search are planned ahead.
+ */
+public final class PathPrecomputer {
+    /** Fewest movers needing a plan for a batch to be worth splitting across threads. */
+    public static final int MIN_BATCH_SIZE = 2;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Idle A* search states, since concurrent searches can't share one. Holds at most one per thread of the pool;
+     * a search that finds none idle makes its own, which is dropped if the pool is full when it is returned.
+     */
+    private final BlockingQueue<GridAStarPathingStrategy> pathfinders;
+
+    public PathPrecomputer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public PathPrecomputer(ForkJoinPool pool) {
+        this.pool = pool;
+        this.pathfinders = new ArrayBlockingQueue<>(pool.getParallelism());
+    }
+
+    /** Plans ahead for the given entities that are movers whose current path doesn't lead to their next destination. */
+    public void precompute(World world, List<? extends Entity> entities) {
+        if (world.isFlowFieldPathing() || world.isReachableTargetSearch() || world.isCooperativePathing()
+                || world.getPathingNodeBudget() > 0) {
+            return;
+        }
+
+        // Destinations are chosen serially, since target queries aren't thread-safe
+        List<Request> requests = new ArrayList<>();
+        for (Entity entity : entities) {
+            if (!(entity instanceof PathPrecomputable mover) || world.getPathingStrategy(entity.getClass()) != world.getPathfinder()) {
+                continue;
+            }
+            Point destination = mover.peekDestination(world);
+            Passability passability = mover.getPassability();
+            if (destination != null && mover.getPlannedPath().needsPlan(world, entity.getPosition(), destination,
+                    (x, y) -> passability.canPassThrough(world, x, y))) {
+                requests.add(new Request(mover, entity.getPosition(), destination));
+            }
+        }
+        if (requests.size() < MIN_BATCH_SIZE) {
+            return;
+        }
+
+        int[][] paths = new int[requests.size()][];
+        pool.submit(() -> IntStream.range(0, requests.size()).parallel()
+                .forEach(i -> paths[i] = plan(world, requests.get(i)))).join();
+
+        for (int i = 0; i < paths.length; i++) {
+            Request request = requests.get(i);
+            if (paths[i] != null) {
+                request.mover().getPlannedPath().adopt(world, request.start(), request.destination(), paths[i]);
+            }
+        }
+    }
+
+    /** Returns the path of a request as 'y * numCols + x' locations not including the start, or null if there is none. */
+    private int[] plan(World world, Request request) {
+        GridAStarPathingStrategy pathfinder = pathfinders.poll();
+        if (pathfinder == null || pathfinder.getNumRows() != world.getNumRows() || pathfinder.getNumCols() != world.getNumCols()) {
+            pathfinder = new GridAStarPathingStrategy(world.getNumRows(), world.getNumCols());
+        }
+        try {
+            return plan(world, request, pathfinder);
+        } finally {
+            pathfinders.offer(pathfinder);
+        }
+    }
+
+    private static int[] plan(World world, Request request, GridAStarPathingStrategy pathfinder) {
+        Passability passability = request.mover().getPassability();
+        Point start = request.start();
+        int startCell = start.y * world.getNumCols() + start.x;
+        int goal = pathfinder.findGoal(start, request.destination(), (x, y) -> passability.canPassThrough(world, x, y));
+        if (goal == GridAStarPathingStrategy.NO_STEP || goal == startCell) {
+            return null;
+        }
+
+        int length = 0;
+        for (int cell = goal; cell != startCell; cell = pathfinder.previousOf(cell)) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int cell = goal; cell != startCell; cell = pathfinder.previousOf(cell)) {
+            path[--length] = cell;
+        }
+        return path;
+    }
+
+    /** A mover that needs a plan, with where it starts and where it is headed. */
+    private record Request(PathPrecomputable mover, Point start, Point destination) {
+    }
+}
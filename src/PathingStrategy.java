@@ -26,6 +26,27 @@ public interface PathingStrategy {
             Function<Point, Stream<Point>> potentialNeighbors
     );
 
+    /**
+     * Like the 'Predicate' and 'Stream' form, but takes callbacks over grid coordinates so strategies can search
+     * without allocating a point per location. By default this adapts the callbacks and calls the other form.
+     */
+    default List<Point> computePath(
+            Point start,
+            Point end,
+            CellPredicate canPassThrough,
+            BiPredicate<Point, Point> withinReach,
+            CellNeighbors potentialNeighbors
+    ) {
+        return computePath(start, end, point -> canPassThrough.test(point.x, point.y), withinReach, point -> {
+            Stream.Builder<Point> neighbors = Stream.builder();
+            potentialNeighbors.forEachNeighbor(point.x, point.y, (x, y) -> neighbors.add(new Point(x, y)));
+            return neighbors.build();
+        });
+    }
+
+    /** The cardinal neighbors of grid coordinates, in the same order as 'CARDINAL_NEIGHBORS'. Does not allocate. */
+    static final CellNeighbors CARDINAL_NEIGHBOR_CELLS = CardinalNeighbors::forEach;
+
     /**
      * A static Constant: it's a lambda function that returns neighbors of a given point as a stream.
      * Example Usage:
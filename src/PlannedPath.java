@@ -0,0 +1,274 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A mover's path toward its destination, kept across behavior ticks.
+ * Each tick only checks that the mover is where the path expects, the destination hasn't changed
+ * and the next location is still passable; the path is replanned otherwise.
+ * Movers also pick their targets through 'findTarget' and their steps through 'nextPosition', which follow
+ * whichever way of pathing the world is set up for: flow fields, reachable target search, cooperative
+ * reservations, or the mover's pathing strategy.
+ */
+public final class PlannedPath {
+    /** Most locations a time-sliced search expands per step, so one mover can't use up a frame's budget. */
+    public static final int NODES_PER_SLICE = 256;
+
+    /** Path locations as 'y * numCols + x', not including the start. */
+    private int[] cells;
+
+    /** Number of valid elements of 'cells'. */
+    private int length;
+
+    /** Index in 'cells' of the next step. */
+    private int next;
+
+    /** Where the mover should be before taking the next step, as 'y * numCols + x'. */
+    private int expectedCell;
+
+    /** The destination the path leads to, or null when there is no path. */
+    private Point destination;
+
+    /** Number of times the path has been planned. */
+    private long planCount;
+
+    /** Search still in progress when the world limits pathing per frame, or null. */
+    private TimeSlicedSearch pendingSearch;
+
+    /** Flow field toward the kinds of the current target, or null when following the path. */
+    private FlowFieldPathingStrategy flowField;
+
+    /** First step toward the current target, found along with it, or null when the target was found otherwise. */
+    private Point reachableStep;
+
+    public PlannedPath() {
+        this.cells = new int[16];
+        this.destination = null;
+    }
+
+    /** Returns the nearest entity of the given kinds the mover should head for, and remembers how to step toward it. */
+    public Optional<Entity> findTarget(World world, Actions mover, List<Class<? extends Entity>> kinds, Passability passability) {
+        flowField = world.isFlowFieldPathing() ? world.getFlowField(kinds, passability) : null;
+        reachableStep = null;
+        if (flowField == null && world.isReachableTargetSearch()) {
+            Optional<ReachableTarget> reachable = world.findNearestReachable(mover.getPosition(), kinds, passability);
+            reachableStep = reachable.map(ReachableTarget::firstStep).orElse(null);
+            return reachable.map(ReachableTarget::target);
+        }
+        return flowField != null ? flowField.nearestTarget(mover.getPosition()) : world.findNearest(mover.getPosition(), kinds, passability);
+    }
+
+    /** Returns where the mover steps next toward the destination, its target's position, or its own position if it can't. */
+    public Point nextPosition(World world, Actions mover, Passability passability, Point destination) {
+        if (reachableStep != null) {
+            return reachableStep;
+        }
+        if (flowField != null) {
+            Predicate<Point> canPassThrough = point -> passability.canPassThrough(world, point);
+            BiPredicate<Point, Point> withinReach = Point::adjacentTo;
+            List<Point> path = flowField.computePath(mover.getPosition(), destination, canPassThrough, withinReach, PathingStrategy.CARDINAL_NEIGHBORS);
+
+            return !path.isEmpty() ? path.getFirst() : mover.getPosition();
+        }
+
+        PathingStrategy strategy = world.getPathingStrategy(mover.getClass());
+        if (!world.hasCellIndices()) {
+            // Paths can't be kept as location indices, so plan one from scratch every step
+            List<Point> path = strategy.computePath(mover.getPosition(), destination,
+                    point -> passability.canPassThrough(world, point), Point::adjacentTo, PathingStrategy.CARDINAL_NEIGHBORS);
+            return !path.isEmpty() ? path.getFirst() : mover.getPosition();
+        }
+        if (world.isCooperativePathing() && strategy == world.getPathfinder()) {
+            return nextCooperativeStep(world, mover, passability, mover.getPosition(), destination);
+        }
+        return nextStep(world, strategy, mover.getPosition(), destination, (x, y) -> passability.canPassThrough(world, x, y));
+    }
+
+    /**
+     * Returns the next step from the given position toward a location adjacent to the destination,
+     * or the position itself if there is none. Paths are planned with the world's shared A* search.
+     * When the world has a pathing node budget, planning may take several steps, during which the
+     * position itself is returned.
+     */
+    public Point nextStep(World world, Point position, Point destination, CellPredicate canPassThrough) {
+        return nextStep(world, world.getPathfinder(), position, destination, canPassThrough);
+    }
+
+    /** Like 'nextStep', but plans paths with the given strategy. 'canPassThrough' must reject locations outside the world. */
+    public Point nextStep(World world, PathingStrategy strategy, Point position, Point destination, CellPredicate canPassThrough) {
+        int numCols = world.getNumCols();
+        if (needsPlan(world, position, destination, canPassThrough)) {
+            boolean planned;
+            if (strategy != world.getPathfinder()) {
+                planned = plan(strategy, numCols, position, destination, canPassThrough);
+            } else if (world.getPathingNodeBudget() > 0) {
+                planned = planSliced(world, position, destination, canPassThrough);
+            } else {
+                planned = plan(world.getPathfinder(), position, destination, canPassThrough);
+            }
+            if (!planned) {
+                return position;
+            }
+        }
+
+        expectedCell = cells[next++];
+        return new Point(expectedCell % numCols, expectedCell / numCols);
+    }
+
+    /**
+     * Returns the next step of a cooperating mover, planned with the world's cooperative pathfinder, or the position
+     * itself while it waits or can't make progress. The mover's reservations are renewed every
+     * 'CooperativePathfinder.REPLAN_STEPS' steps, and whenever the path is blocked by something that doesn't reserve.
+     */
+    public Point nextCooperativeStep(World world, Actions mover, Passability passability, Point position, Point destination) {
+        int numCols = world.getNumCols();
+        int cell = position.y * numCols + position.x;
+        if (!destination.equals(this.destination)
+                || cell != expectedCell
+                || next >= length
+                || next >= CooperativePathfinder.REPLAN_STEPS
+                || cells[next] != cell && !passability.canPassThrough(world, cells[next] % numCols, cells[next] / numCols)) {
+            int[] path = world.getCooperativePathfinder().plan(mover, passability, position, destination);
+            if (path == null) {
+                planCount++;
+                clear();
+                return position;
+            }
+            adopt(world, position, destination, path);
+        }
+
+        expectedCell = cells[next++];
+        return new Point(expectedCell % numCols, expectedCell / numCols);
+    }
+
+    /** Returns 'true' if the path doesn't continue from the position toward the destination through a passable location. */
+    public boolean needsPlan(World world, Point position, Point destination, CellPredicate canPassThrough) {
+        int numCols = world.getNumCols();
+        return !destination.equals(this.destination)
+                || position.y * numCols + position.x != expectedCell
+                || next >= length
+                || !canPassThrough.test(cells[next] % numCols, cells[next] / numCols);
+    }
+
+    /** Replaces the path with one planned elsewhere, given as 'y * numCols + x' locations not including the position. */
+    public void adopt(World world, Point position, Point destination, int[] path) {
+        planCount++;
+        clear();
+        if (path.length > cells.length) {
+            cells = new int[path.length];
+        }
+        System.arraycopy(path, 0, cells, 0, path.length);
+        length = path.length;
+
+        this.destination = destination;
+        expectedCell = position.y * world.getNumCols() + position.x;
+    }
+
+    /** Forgets the current path, so the next step is planned from scratch. */
+    public void clear() {
+        pendingSearch = null;
+        destination = null;
+        length = 0;
+        next = 0;
+    }
+
+    public long getPlanCount() {
+        return planCount;
+    }
+
+    /** Searches for a new path and returns 'true' if it has at least one step. */
+    private boolean plan(GridAStarPathingStrategy pathfinder, Point position, Point destination, CellPredicate canPassThrough) {
+        planCount++;
+        clear();
+        int startCell = position.y * pathfinder.getNumCols() + position.x;
+        int goal = pathfinder.findGoal(position, destination, canPassThrough);
+        if (goal == GridAStarPathingStrategy.NO_STEP || goal == startCell) {
+            return false;
+        }
+
+        // Read the path backward from the goal, then reverse it in place
+        for (int cell = goal; cell != startCell; cell = pathfinder.previousOf(cell)) {
+            if (length == cells.length) {
+                cells = Arrays.copyOf(cells, length * 2);
+            }
+            cells[length++] = cell;
+        }
+        reverseCells();
+
+        this.destination = destination;
+        expectedCell = startCell;
+        return true;
+    }
+
+    /**
+     * Continues (or starts) a search within the world's remaining pathing budget and returns 'true' once it
+     * found a path with at least one step. An unfinished search is kept for the next step.
+     */
+    private boolean planSliced(World world, Point position, Point destination, CellPredicate canPassThrough) {
+        if (pendingSearch == null || !pendingSearch.isFor(position, destination)) {
+            clear();
+            pendingSearch = new TimeSlicedSearch(world.getNumRows(), world.getNumCols(), position, destination);
+        }
+        int slice = Math.min(NODES_PER_SLICE, world.getPathingNodesLeft());
+        if (slice == 0) {
+            return false;
+        }
+        TimeSlicedSearch search = pendingSearch;
+        TimeSlicedSearch.Status status = search.resume(canPassThrough, slice);
+        world.spendPathingNodes(search.getLastExpansions());
+        if (status == TimeSlicedSearch.Status.RUNNING) {
+            return false;
+        }
+
+        planCount++;
+        clear();
+        int startCell = position.y * world.getNumCols() + position.x;
+        if (status == TimeSlicedSearch.Status.NO_PATH || search.getGoal() == startCell) {
+            return false;
+        }
+        for (int cell = search.getGoal(); cell != startCell; cell = search.previousOf(cell)) {
+            if (length == cells.length) {
+                cells = Arrays.copyOf(cells, length * 2);
+            }
+            cells[length++] = cell;
+        }
+        reverseCells();
+
+        this.destination = destination;
+        expectedCell = startCell;
+        return true;
+    }
+
+    /** Reverses the valid elements of 'cells' in place. */
+    private void reverseCells() {
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int swap = cells[i];
+            cells[i] = cells[j];
+            cells[j] = swap;
+        }
+    }
+
+    /** Plans with a general pathing strategy and returns 'true' if the path has at least one step. */
+    private boolean plan(PathingStrategy strategy, int numCols, Point position, Point destination, CellPredicate canPassThrough) {
+        planCount++;
+        clear();
+        List<Point> path = strategy.computePath(position, destination, canPassThrough, Point::adjacentTo,
+                PathingStrategy.CARDINAL_NEIGHBOR_CELLS);
+        if (path.isEmpty()) {
+            return false;
+        }
+
+        if (path.size() > cells.length) {
+            cells = new int[path.size()];
+        }
+        for (Point step : path) {
+            cells[length++] = step.y * numCols + step.x;
+        }
+
+        this.destination = destination;
+        expectedCell = position.y * numCols + position.x;
+        return true;
+    }
+}
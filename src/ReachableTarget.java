@@ -0,0 +1,6 @@
+/**
+ * The result of 'World.findNearestReachable': the nearest target by path, and the first step toward it.
+ * The first step is the start itself when the target is already within reach.
+ */
+public record ReachableTarget(Entity target, Point firstStep) {
+}
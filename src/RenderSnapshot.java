@@ -0,0 +1,115 @@
+import processing.core.PImage;
+
+import java.util.Arrays;
+
+/**
+ * An immutable picture of what a viewport shows at one point of a simulation: its background tiles, the image and
+ * location of every entity in it in row-major order, and which background tiles changed since the last snapshot
+ * that was drawn. Captured by the simulation thread and drawn by the render thread, which never touches the world.
+ */
+public final class RenderSnapshot {
+    /** World coordinates of the top left visible location. */
+    private final int col;
+    private final int row;
+
+    /** Size of the captured area, in locations. */
+    private final int numCols;
+    private final int numRows;
+
+    /** Background of every captured location, row-major, or null where there is none. */
+    private final Background[] tiles;
+
+    /** World coordinates of background tiles changed since the previous snapshot that was drawn, as x, y pairs. */
+    private final int[] changedTiles;
+
+    /** Image and world coordinates of each visible entity, in row-major order. */
+    private final PImage[] entityImages;
+    private final int[] entityXs;
+    private final int[] entityYs;
+
+    /** Captures the given area of the world. Must run on the thread that updates the world. */
+    public RenderSnapshot(World world, int col, int row, int numCols, int numRows, int[] changedTiles) {
+        this.col = col;
+        this.row = row;
+        this.numCols = numCols;
+        this.numRows = numRows;
+        this.changedTiles = changedTiles;
+
+        this.tiles = new Background[numRows * numCols];
+        for (int y = 0; y < numRows; y++) {
+            for (int x = 0; x < numCols; x++) {
+                tiles[y * numCols + x] = world.getTile(world.tileIdAt(col + x, row + y));
+            }
+        }
+
+        int[] count = new int[1];
+        world.forEachEntityIn(col, row, numCols, numRows, entity -> count[0]++);
+        this.entityImages = new PImage[count[0]];
+        this.entityXs = new int[count[0]];
+        this.entityYs = new int[count[0]];
+        count[0] = 0;
+        world.forEachEntityIn(col, row, numCols, numRows, entity -> {
+            int i = count[0]++;
+            entityImages[i] = entity.getImages().get(entity.getImageIndex() % entity.getImages().size());
+            entityXs[i] = entity.getPosition().x;
+            entityYs[i] = entity.getPosition().y;
+        });
+    }
+
+    /** Returns the background at the given coordinates relative to the captured area, or null. */
+    public Background tileAt(int x, int y) {
+        return tiles[y * numCols + x];
+    }
+
+    /** Returns the changed tile coordinates of this snapshot followed by the given ones, for a snapshot replacing this one undrawn. */
+    public int[] changedTilesWith(int[] other) {
+        int[] merged = Arrays.copyOf(changedTiles, changedTiles.length + other.length);
+        System.arraycopy(other, 0, merged, changedTiles.length, other.length);
+        return merged;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getNumCols() {
+        return numCols;
+    }
+
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /** Returns the number of x, y pairs of changed tile coordinates. */
+    public int getChangedTileCount() {
+        return changedTiles.length / 2;
+    }
+
+    public int getChangedTileX(int index) {
+        return changedTiles[2 * index];
+    }
+
+    public int getChangedTileY(int index) {
+        return changedTiles[2 * index + 1];
+    }
+
+    public int getEntityCount() {
+        return entityImages.length;
+    }
+
+    public PImage getEntityImage(int index) {
+        return entityImages[index];
+    }
+
+    public int getEntityX(int index) {
+        return entityXs[index];
+    }
+
+    public int getEntityY(int index) {
+        return entityYs[index];
+    }
+}
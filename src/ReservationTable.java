@@ -0,0 +1,156 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Claims movers hold on world locations for intervals of scheduler time, so cooperating movers can plan around
+ * where others will be instead of treating each other as fixed obstacles.
+ * Intervals of different movers on the same location never overlap; intervals that only touch don't count as
+ * overlapping. Reservations are dropped once the table's time has passed their end, and all of a mover's
+ * reservations are dropped when it is removed from the world.
+ * Obtain instances through 'World.getReservationTable'.
+ */
+public final class ReservationTable {
+    /** Reservations of each location, keyed by 'y * numCols + x'. */
+    private final Map<Integer, List<Reservation>> reservations;
+
+    /** Reservations of each owner, so releasing an owner doesn't search every location. */
+    private final Map<Entity, List<Reservation>> reservationsByOwner;
+
+    /** Reservations by end time, to drop them as time passes. Released reservations stay until they end, marked as such. */
+    private final Queue<Reservation> byEnd;
+
+    /** Scheduler time the table was last advanced to. */
+    private double time;
+
+    public ReservationTable() {
+        this.reservations = new HashMap<>();
+        this.reservationsByOwner = new HashMap<>();
+        this.byEnd = new PriorityQueue<>(Comparator.comparingDouble(Reservation::getUntil));
+        this.time = 0;
+    }
+
+    /** Moves the table's time forward, dropping every reservation that has ended by then. */
+    public void advanceTo(double time) {
+        this.time = time;
+        while (!byEnd.isEmpty() && byEnd.peek().getUntil() <= time + Actions.TIME_EPSILON) {
+            Reservation reservation = byEnd.poll();
+            if (!reservation.isReleased()) {
+                removeFrom(reservations, reservation.getCell(), reservation);
+                removeFrom(reservationsByOwner, reservation.getOwner(), reservation);
+            }
+        }
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    /** Claims a location for the given owner from 'from' until 'until'. Does not check for conflicts. */
+    public void reserve(Entity owner, int cell, double from, double until) {
+        if (until < from) {
+            throw new IllegalArgumentException(String.format("Reservation ends (%f) before it starts (%f)", until, from));
+        }
+        Reservation reservation = new Reservation(owner, cell, from, until);
+        reservations.computeIfAbsent(cell, key -> new ArrayList<>(2)).add(reservation);
+        reservationsByOwner.computeIfAbsent(owner, key -> new ArrayList<>()).add(reservation);
+        byEnd.add(reservation);
+    }
+
+    /** Drops every reservation of the given owner. */
+    public void release(Entity owner) {
+        List<Reservation> owned = reservationsByOwner.remove(owner);
+        if (owned == null) {
+            return;
+        }
+        for (Reservation reservation : owned) {
+            reservation.release();
+            removeFrom(reservations, reservation.getCell(), reservation);
+        }
+    }
+
+    /** Returns 'true' if no one but 'mover' holds the location at any time between 'from' and 'until'. */
+    public boolean isFree(int cell, double from, double until, Entity mover) {
+        List<Reservation> cellReservations = reservations.get(cell);
+        if (cellReservations == null) {
+            return true;
+        }
+        for (Reservation reservation : cellReservations) {
+            if (reservation.getOwner() != mover
+                    && from < reservation.getUntil() - Actions.TIME_EPSILON
+                    && reservation.getFrom() < until - Actions.TIME_EPSILON) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns 'true' if the given owner holds the location at some time. */
+    public boolean holds(Entity owner, int cell) {
+        List<Reservation> cellReservations = reservations.get(cell);
+        if (cellReservations == null) {
+            return false;
+        }
+        for (Reservation reservation : cellReservations) {
+            if (reservation.getOwner() == owner) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Removes a reservation from the list under the given key, and the list once it is empty. */
+    private static <K> void removeFrom(Map<K, List<Reservation>> index, K key, Reservation reservation) {
+        List<Reservation> list = index.get(key);
+        if (list != null) {
+            list.remove(reservation);
+            if (list.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /** A claim on a location. Compared by identity, so equal claims can be told apart. */
+    private static final class Reservation {
+        private final Entity owner;
+        private final int cell;
+        private final double from;
+        private final double until;
+        private boolean released;
+
+        Reservation(Entity owner, int cell, double from, double until) {
+            this.owner = owner;
+            this.cell = cell;
+            this.from = from;
+            this.until = until;
+        }
+
+        Entity getOwner() {
+            return owner;
+        }
+
+        int getCell() {
+            return cell;
+        }
+
+        double getFrom() {
+            return from;
+        }
+
+        double getUntil() {
+            return until;
+        }
+
+        boolean isReleased() {
+            return released;
+        }
+
+        void release() {
+            released = true;
+        }
+    }
+}
@@ -18,12 +18,22 @@ public class Sapling extends Actions implements Transformable{
     }
 
     public void updateImage(){
+        setImageIndex(getHealthImageIndex());
+    }
+
+    /** With lazy animation the image always reflects the current health. */
+    @Override
+    public int getImageIndex() {
+        return isAnimationLazy() ? getHealthImageIndex() : super.getImageIndex();
+    }
+
+    private int getHealthImageIndex() {
         if (getHealth() <= 0) {
-            setImageIndex(0);
+            return 0;
         } else if (getHealth() < SAPLING_HEALTH_LIMIT) {
-            setImageIndex(getImages().size() * getHealth() / SAPLING_HEALTH_LIMIT);
+            return getImages().size() * getHealth() / SAPLING_HEALTH_LIMIT;
         } else {
-            setImageIndex(getImages().size() - 1);
+            return getImages().size() - 1;
         }
     }
 
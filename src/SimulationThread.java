@@ -0,0 +1,135 @@
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a simulation on its own thread, so a slow step delays the next snapshot instead of dropping frames.
+ * After every step, the simulation publishes an immutable 'RenderSnapshot' of the area the render thread asked for.
+ * The render thread takes the latest published snapshot while the next one is built; a snapshot replaced before
+ * it was taken passes its changed background tiles on to its replacement, so no change is missed.
+ * Once started, only the simulation thread may touch the world; other threads hand it work through 'submit'.
+ */
+public final class SimulationThread implements BackgroundListener {
+    /** Pause after each step, in milliseconds, so an idle simulation doesn't keep a core busy. */
+    public static final long STEP_PAUSE_MILLIS = 4;
+
+    private final World world;
+
+    /** Advances the simulation to the current time. */
+    private final Runnable step;
+
+    /** Size of the captured area, in locations. */
+    private final int numRows;
+    private final int numCols;
+
+    private final Thread thread;
+
+    /** Work submitted by other threads, run before the next step. */
+    private final Queue<Runnable> commands;
+
+    /** The latest snapshot not yet taken by the render thread, or null. */
+    private final AtomicReference<RenderSnapshot> published;
+
+    /** The snapshot the render thread took last, drawn again until a newer one is published. Render thread only. */
+    private RenderSnapshot current;
+
+    /** Top left location the render thread wants captured, as 'col << 32 | row'. */
+    private volatile long requestedOrigin;
+
+    private volatile boolean running;
+
+    /** World coordinates of background tiles changed since the last snapshot, as x, y pairs. Simulation thread only. */
+    private int[] changedTiles;
+    private int changedTileCount;
+
+    public SimulationThread(World world, Runnable step, int numRows, int numCols) {
+        this.world = world;
+        this.step = step;
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.thread = new Thread(this::run, "simulation");
+        this.thread.setDaemon(true);
+        this.commands = new ConcurrentLinkedQueue<>();
+        this.published = new AtomicReference<>();
+        this.changedTiles = new int[16];
+        this.changedTileCount = 0;
+        world.addBackgroundListener(this);
+    }
+
+    /** Publishes a first snapshot of the given area and starts stepping. The calling thread must not touch the world afterward. */
+    public void start(int col, int row) {
+        requestViewport(col, row);
+        publish();
+        running = true;
+        thread.start();
+    }
+
+    /** Stops stepping after the current step and waits for it to finish. */
+    public void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Runs the given work on the simulation thread before its next step. */
+    public void submit(Runnable command) {
+        commands.add(command);
+    }
+
+    /** Asks for the snapshots from the next step on to capture the area with the given top left location. */
+    public void requestViewport(int col, int row) {
+        requestedOrigin = (long) col << 32 | (row & 0xffffffffL);
+    }
+
+    /** Returns the latest complete snapshot. Render thread only. */
+    public RenderSnapshot takeSnapshot() {
+        RenderSnapshot next = published.getAndSet(null);
+        if (next != null) {
+            current = next;
+        }
+        return current;
+    }
+
+    @Override
+    public void backgroundChanged(int x, int y) {
+        if (changedTileCount == changedTiles.length) {
+            changedTiles = Arrays.copyOf(changedTiles, changedTileCount * 2);
+        }
+        changedTiles[changedTileCount++] = x;
+        changedTiles[changedTileCount++] = y;
+    }
+
+    private void run() {
+        while (running) {
+            Runnable command;
+            while ((command = commands.poll()) != null) {
+                command.run();
+            }
+            step.run();
+            publish();
+            try {
+                Thread.sleep(STEP_PAUSE_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /** Captures the requested area and replaces the published snapshot with it. */
+    private void publish() {
+        int[] changes = Arrays.copyOf(changedTiles, changedTileCount);
+        changedTileCount = 0;
+        // If the render thread takes the unread snapshot meanwhile, its changes are just redrawn twice
+        RenderSnapshot unread = published.get();
+        if (unread != null) {
+            changes = unread.changedTilesWith(changes);
+        }
+        long origin = requestedOrigin;
+        published.set(new RenderSnapshot(world, (int) (origin >> 32), (int) origin, numCols, numRows, changes));
+    }
+}
@@ -0,0 +1,170 @@
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Buckets the entities of a world by their class and by a coarse grid of cells,
+ * so that nearest-entity queries only look at the cells around the query point.
+ * Must be kept synchronized with the world's occupancy grid.
+ */
+public final class SpatialIndex {
+    /** Width and height, in tiles, of a single index cell. */
+    public static final int CELL_SIZE = 8;
+
+    /** Index height in cells. */
+    private final int cellRows;
+
+    /** Index width in cells. */
+    private final int cellCols;
+
+    /** One cell grid per concrete entity class, in the order the classes were first seen. */
+    private final Map<Class<? extends Entity>, KindGrid> grids;
+
+    public SpatialIndex(int numRows, int numCols) {
+        this.cellRows = (numRows + CELL_SIZE - 1) / CELL_SIZE;
+        this.cellCols = (numCols + CELL_SIZE - 1) / CELL_SIZE;
+        this.grids = new LinkedHashMap<>();
+    }
+
+    /** Indexes an entity at its current position. */
+    public void add(Entity entity) {
+        grids.computeIfAbsent(entity.getClass(), kind -> new KindGrid()).add(entity, entity.getPosition());
+    }
+
+    /** Removes an entity that was indexed at the given position. */
+    public void remove(Entity entity, Point position) {
+        KindGrid grid = grids.get(entity.getClass());
+        if (grid != null) {
+            grid.remove(entity, position);
+        }
+    }
+
+    /** Updates the index after an entity moved between two positions. */
+    public void move(Entity entity, Point from, Point to) {
+        KindGrid grid = grids.get(entity.getClass());
+        if (grid != null && cellIndex(from) != cellIndex(to) && grid.remove(entity, from)) {
+            grid.add(entity, to);
+        }
+    }
+
+    /**
+     * Returns the (optional) entity of the given kind(s) with the smallest manhattan distance to the point.
+     * Searches outward in rings of cells and stops once no unvisited cell can hold a closer entity.
+     * Ties are broken by the smaller row and then the smaller column.
+     */
+    public Optional<Entity> findNearest(Point position, List<Class<? extends Entity>> kinds) {
+        return findNearest(position, kinds, entity -> true);
+    }
+
+    /** Like 'findNearest', but only considers entities accepted by the filter. */
+    public Optional<Entity> findNearest(Point position, List<Class<? extends Entity>> kinds, Predicate<Entity> filter) {
+        List<KindGrid> matching = matchingGrids(kinds);
+        if (matching.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int centerCol = NumberUtil.clamp(position.x / CELL_SIZE, 0, cellCols - 1);
+        int centerRow = NumberUtil.clamp(position.y / CELL_SIZE, 0, cellRows - 1);
+        int maxRing = Math.max(cellRows, cellCols);
+
+        Entity nearest = null;
+        int nearestDistance = Integer.MAX_VALUE;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every tile in this ring is at least this far from the query point
+            int ringDistance = Math.max(0, (ring - 1) * CELL_SIZE + 1);
+            if (nearest != null && nearestDistance < ringDistance) {
+                break;
+            }
+
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                if (row < 0 || row >= cellRows) {
+                    continue;
+                }
+                boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int col = centerCol - ring; col <= centerCol + ring; col += step) {
+                    if (col < 0 || col >= cellCols) {
+                        continue;
+                    }
+                    int cell = row * cellCols + col;
+                    for (KindGrid grid : matching) {
+                        List<Entity> bucket = grid.cells[cell];
+                        if (bucket == null) {
+                            continue;
+                        }
+                        for (Entity other : bucket) {
+                            int distance = other.getPosition().manhattanDistanceTo(position);
+                            boolean closer = nearest == null || distance < nearestDistance
+                                    || (distance == nearestDistance && comesBefore(other.getPosition(), nearest.getPosition()));
+                            if (closer && filter.test(other)) {
+                                nearest = other;
+                                nearestDistance = distance;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return Optional.ofNullable(nearest);
+    }
+
+    /** Returns the non-empty grids whose class is one of the given kinds or a subclass of one. */
+    private List<KindGrid> matchingGrids(List<Class<? extends Entity>> kinds) {
+        List<KindGrid> matching = new ArrayList<>();
+        for (Map.Entry<Class<? extends Entity>, KindGrid> entry : grids.entrySet()) {
+            KindGrid grid = entry.getValue();
+            if (grid.count == 0) {
+                continue;
+            }
+            for (Class<? extends Entity> kind : kinds) {
+                if (kind.isAssignableFrom(entry.getKey())) {
+                    matching.add(grid);
+                    break;
+                }
+            }
+        }
+        return matching;
+    }
+
+    /** Row-major ordering of points, used to make ties deterministic. */
+    private static boolean comesBefore(Point a, Point b) {
+        return a.y < b.y || (a.y == b.y && a.x < b.x);
+    }
+
+    private int cellIndex(Point position) {
+        return (position.y / CELL_SIZE) * cellCols + position.x / CELL_SIZE;
+    }
+
+    /** The entities of a single class, bucketed by cell. */
+    private final class KindGrid {
+        private final List<Entity>[] cells;
+        private int count;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private KindGrid() {
+            this.cells = new List[cellRows * cellCols];
+        }
+
+        private void add(Entity entity, Point position) {
+            int cell = cellIndex(position);
+            if (cells[cell] == null) {
+                cells[cell] = new ArrayList<>();
+            }
+            cells[cell].add(entity);
+            count++;
+        }
+
+        private boolean remove(Entity entity, Point position) {
+            List<Entity> bucket = cells[cellIndex(position)];
+            if (bucket == null || !bucket.remove(entity)) {
+                return false;
+            }
+            count--;
+            if (bucket.isEmpty()) {
+                cells[cellIndex(position)] = null;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * An A* search from a start to a location adjacent to an end that can stop after a number of expansions
+ * and pick up where it left off, so one long search can be spread over several frames.
+ * State is kept in maps sized to the explored area, since a search may outlive the frame it started in
+ * and several can be suspended at once. Passability is checked when a location is reached, so a result
+ * reflects the world as it was during the search and may be stale by the time it is followed.
+ */
+public final class TimeSlicedSearch {
+    /** Progress of a search. */
+    public enum Status {
+        /** The search has locations left to expand. */
+        RUNNING,
+
+        /** A location adjacent to the end was reached. */
+        FOUND,
+
+        /** Every reachable location was expanded without finding a way to the end. */
+        NO_PATH
+    }
+
+    private final int numRows;
+    private final int numCols;
+    private final Point start;
+    private final Point end;
+
+    /** Cost of the best known path from the start, keyed by 'y * numCols + x'. */
+    private final Map<Integer, Integer> gScores;
+
+    /** Previous location on the best known path from the start. */
+    private final Map<Integer, Integer> cameFrom;
+
+    /** Locations that have been expanded. */
+    private final Set<Integer> closedSet;
+
+    /** Open locations as 'f << 32 | location', so ties go to the smaller location; stale entries are skipped. */
+    private final Queue<Long> openSet;
+
+    private Status status;
+
+    /** The location adjacent to the end that was reached, once 'FOUND'. */
+    private int goal;
+
+    /** Number of locations expanded by the last call to 'resume'. */
+    private int lastExpansions;
+
+    public TimeSlicedSearch(int numRows, int numCols, Point start, Point end) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.start = start;
+        this.end = end;
+        this.gScores = new HashMap<>();
+        this.cameFrom = new HashMap<>();
+        this.closedSet = new HashSet<>();
+        this.openSet = new PriorityQueue<>();
+        this.status = Status.RUNNING;
+
+        int startCell = start.y * numCols + start.x;
+        gScores.put(startCell, 0);
+        openSet.add(entry(start.manhattanDistanceTo(end), startCell));
+    }
+
+    /** Expands at most 'maxExpansions' locations and returns the resulting status. */
+    public Status resume(CellPredicate canPassThrough, int maxExpansions) {
+        lastExpansions = 0;
+        while (status == Status.RUNNING && lastExpansions < maxExpansions) {
+            if (openSet.isEmpty()) {
+                status = Status.NO_PATH;
+                break;
+            }
+            int current = (int) (long) openSet.poll();
+            if (!closedSet.add(current)) {
+                continue;
+            }
+            lastExpansions++;
+
+            int x = current % numCols;
+            int y = current / numCols;
+            if (Math.abs(end.x - x) + Math.abs(end.y - y) == 1) {
+                goal = current;
+                status = Status.FOUND;
+                break;
+            }
+
+            int g = gScores.get(current) + 1;
+            for (int i = 0; i < CardinalNeighbors.COUNT; i++) {
+                int nx = CardinalNeighbors.x(x, i);
+                int ny = CardinalNeighbors.y(y, i);
+                if (nx < 0 || nx >= numCols || ny < 0 || ny >= numRows || !canPassThrough.test(nx, ny)) {
+                    continue;
+                }
+                int neighbor = ny * numCols + nx;
+                if (!closedSet.contains(neighbor) && g < gScores.getOrDefault(neighbor, Integer.MAX_VALUE)) {
+                    gScores.put(neighbor, g);
+                    cameFrom.put(neighbor, current);
+                    openSet.add(entry(g + Math.abs(end.x - nx) + Math.abs(end.y - ny), neighbor));
+                }
+            }
+        }
+        return status;
+    }
+
+    /** Returns 'true' if this search is for the given start and end. */
+    public boolean isFor(Point start, Point end) {
+        return this.start.equals(start) && this.end.equals(end);
+    }
+
+    /** Returns the location adjacent to the end that was reached, as 'y * numCols + x'. Only valid once 'FOUND'. */
+    public int getGoal() {
+        return goal;
+    }
+
+    /** Returns the location before the given one on the path found, as 'y * numCols + x'. */
+    public int previousOf(int cell) {
+        return cameFrom.get(cell);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getLastExpansions() {
+        return lastExpansions;
+    }
+
+    private static long entry(int f, int cell) {
+        return (long) f << 32 | cell;
+    }
+}
@@ -0,0 +1,218 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel of events.
+ * Time is divided into ticks; each wheel level has 64 slots, and a slot of level L spans 64^L ticks.
+ * An event is stored at the level of the highest base-64 digit in which its tick differs from the
+ * current tick, so insertion and cancellation take constant time. When the current tick reaches a
+ * slot of a higher level, that slot's events cascade down to lower levels.
+ * Events of ticks that have been reached are kept in a small heap, which orders events by their exact
+ * time and scheduling order.
+ */
+public final class TimingWheel implements EventQueue {
+    /** Default length of a tick, in seconds. Matches the shortest animation period. */
+    public static final double DEFAULT_TICK_SECONDS = 0.01;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 7;
+
+    /** 'Event.queueBucket' of events in 'ready'. */
+    private static final int READY_BUCKET = -2;
+
+    /** 'Event.queueBucket' of events in 'overflow'. */
+    private static final int OVERFLOW_BUCKET = -3;
+
+    /** Length of a tick, in seconds. */
+    private final double tickSeconds;
+
+    /** Events of each level and slot, indexed by 'level * SLOTS + slot'. Created on demand. */
+    private final List<List<Event>> buckets;
+
+    /** Bit 's' of element 'L' is set when slot 's' of level 'L' holds events. */
+    private final long[] occupied;
+
+    /** Events whose tick is at or before 'currentTick'. */
+    private final EventHeap ready;
+
+    /** Events too far in the future for the wheel. */
+    private final EventHeap overflow;
+
+    /** The latest tick that has been reached. */
+    private long currentTick;
+
+    /** Number of queued events. */
+    private int size;
+
+    public TimingWheel() {
+        this(DEFAULT_TICK_SECONDS);
+    }
+
+    public TimingWheel(double tickSeconds) {
+        this.tickSeconds = tickSeconds;
+        this.buckets = new ArrayList<>(LEVELS * SLOTS);
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            buckets.add(null);
+        }
+        this.occupied = new long[LEVELS];
+        this.ready = new EventHeap();
+        this.overflow = new EventHeap();
+        this.currentTick = 0;
+        this.size = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Event peek() {
+        if (ready.isEmpty()) {
+            advance();
+        }
+        return ready.peek();
+    }
+
+    @Override
+    public Event poll() {
+        if (ready.isEmpty()) {
+            advance();
+        }
+        Event event = ready.poll();
+        if (event != null) {
+            event.setQueueBucket(Event.NO_INDEX);
+            size--;
+        }
+        return event;
+    }
+
+    @Override
+    public void add(Event event) {
+        place(event, tickOf(event));
+        size++;
+    }
+
+    @Override
+    public boolean remove(Event event) {
+        int bucket = event.getQueueBucket();
+        boolean removed;
+        if (bucket == READY_BUCKET) {
+            removed = ready.remove(event);
+        } else if (bucket == OVERFLOW_BUCKET) {
+            removed = overflow.remove(event);
+        } else if (bucket >= 0) {
+            removed = removeFromBucket(event, bucket);
+        } else {
+            removed = false;
+        }
+
+        if (removed) {
+            event.setQueueBucket(Event.NO_INDEX);
+            size--;
+        }
+        return removed;
+    }
+
+    /** Moves the earliest pending tick's events into 'ready'. */
+    private void advance() {
+        while (ready.isEmpty() && size > 0) {
+            int level = 0;
+            long slots = 0;
+            while (level < LEVELS) {
+                int digit = (int) (currentTick >>> (level * SLOT_BITS)) & SLOT_MASK;
+                // Stored slots are always after the current digit of their level
+                slots = occupied[level] & (-2L << digit);
+                if (slots != 0) {
+                    break;
+                }
+                level++;
+            }
+
+            if (level == LEVELS) {
+                // Only far-future events remain; jump to the earliest one
+                currentTick = tickOf(overflow.peek());
+                while (!overflow.isEmpty() && levelOf(tickOf(overflow.peek())) < LEVELS) {
+                    Event event = overflow.poll();
+                    place(event, tickOf(event));
+                }
+                continue;
+            }
+
+            // Jump to the first tick of the slot, then redistribute its events below it
+            int slot = Long.numberOfTrailingZeros(slots);
+            int shift = level * SLOT_BITS;
+            long highMask = -1L << (shift + SLOT_BITS);
+            currentTick = (currentTick & highMask) | ((long) slot << shift);
+
+            int bucketIndex = level * SLOTS + slot;
+            List<Event> bucket = buckets.get(bucketIndex);
+            buckets.set(bucketIndex, null);
+            occupied[level] &= ~(1L << slot);
+            for (Event event : bucket) {
+                place(event, tickOf(event));
+            }
+        }
+    }
+
+    /** Stores an event according to how far its tick is from the current tick. */
+    private void place(Event event, long tick) {
+        if (tick <= currentTick) {
+            event.setQueueBucket(READY_BUCKET);
+            ready.add(event);
+            return;
+        }
+
+        int level = levelOf(tick);
+        if (level >= LEVELS) {
+            event.setQueueBucket(OVERFLOW_BUCKET);
+            overflow.add(event);
+            return;
+        }
+
+        int slot = (int) (tick >>> (level * SLOT_BITS)) & SLOT_MASK;
+        int bucketIndex = level * SLOTS + slot;
+        List<Event> bucket = buckets.get(bucketIndex);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets.set(bucketIndex, bucket);
+            occupied[level] |= 1L << slot;
+        }
+        event.setQueueBucket(bucketIndex);
+        event.setQueueIndex(bucket.size());
+        bucket.add(event);
+    }
+
+    private boolean removeFromBucket(Event event, int bucketIndex) {
+        List<Event> bucket = buckets.get(bucketIndex);
+        int index = event.getQueueIndex();
+        if (bucket == null || index < 0 || index >= bucket.size() || bucket.get(index) != event) {
+            return false;
+        }
+
+        // Fill the gap with the last event so removal doesn't shift the bucket
+        Event last = bucket.remove(bucket.size() - 1);
+        if (last != event) {
+            bucket.set(index, last);
+            last.setQueueIndex(index);
+        }
+        event.setQueueIndex(Event.NO_INDEX);
+
+        if (bucket.isEmpty()) {
+            buckets.set(bucketIndex, null);
+            occupied[bucketIndex / SLOTS] &= ~(1L << (bucketIndex % SLOTS));
+        }
+        return true;
+    }
+
+    /** Returns the wheel level of a future tick: its highest base-64 digit that differs from the current tick. */
+    private int levelOf(long tick) {
+        return (63 - Long.numberOfLeadingZeros(tick ^ currentTick)) / SLOT_BITS;
+    }
+
+    private long tickOf(Event event) {
+        return (long) Math.floor(event.getTime() / tickSeconds);
+    }
+}
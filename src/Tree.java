@@ -36,11 +36,17 @@ public class Tree extends Actions implements Transformable {
     @Override
     public void executeBehavior(World world, ImageLibrary imageLibrary, EventScheduler scheduler) {
         if (!transform(world, imageLibrary, scheduler)) {
-            scheduleBehavior(scheduler, world, imageLibrary);
+            // Nothing to do until 'setHealth' brings the health to zero
+            park(scheduler, world, imageLibrary);
         }
     }
 
-    public void setHealth(int health) {this.health = health; }
+    public void setHealth(int health) {
+        this.health = health;
+        if (health <= 0) {
+            wake();
+        }
+    }
     public int getHealth() {return this.health; }
 
     @Override
@@ -17,6 +17,24 @@ public final class VirtualWorld extends PApplet {
     public static final String FASTER_FLAG = "-faster";
     public static final String FASTEST_FLAG = "-fastest";
     public static final String WORLD_STRING_FLAG = "-string";
+    public static final String TIMING_WHEEL_FLAG = "-wheel";
+    public static final String PACKED_EVENTS_FLAG = "-packed";
+    public static final String LAZY_ANIMATION_FLAG = "-lazyanimation";
+    public static final String FLOW_FIELD_FLAG = "-flowfield";
+    public static final String JUMP_POINT_FLAG = "-jps";
+    public static final String HIERARCHICAL_PATHING_FLAG = "-hpa";
+    public static final String CONNECTIVITY_FLAG = "-connectivity";
+    public static final String REACHABLE_TARGET_FLAG = "-reachable";
+    public static final String TIME_SLICED_PATHING_FLAG = "-timesliced";
+    public static final String PARALLEL_PATHING_FLAG = "-parallel";
+    public static final String LANDMARK_HEURISTIC_FLAG = "-alt";
+    public static final String COOPERATIVE_PATHING_FLAG = "-cooperative";
+    public static final String SIMULATION_THREAD_FLAG = "-simthread";
+    public static final String CATCH_UP_FLAG = "-catchup";
+    public static final String DROP_LAG_FLAG = "-droplag";
+    public static final int PATHING_NODE_BUDGET = 4096;
+    public static final double FRAME_TIME_BUDGET = 0.25;
+    public static final int FRAME_EVENT_BUDGET = 8192;
     public static final double FAST_SCALE = 0.5;
     public static final double FASTER_SCALE = 0.25;
     public static final double FASTEST_SCALE = 0.0625;
@@ -25,11 +43,31 @@ public final class VirtualWorld extends PApplet {
     public boolean worldStringIsFilePath = true;
     public long startTimeMillis = 0;
     public double timeScale = 1.0;
+    public boolean useTimingWheel = false;
+    public boolean usePackedEvents = false;
+    public boolean useLazyAnimation = false;
+    public boolean useFlowFields = false;
+    public boolean useJumpPointSearch = false;
+    public boolean useHierarchicalPathing = false;
+    public boolean useConnectivityPruning = false;
+    public boolean useReachableTargetSearch = false;
+    public boolean useTimeSlicedPathing = false;
+    public boolean useParallelPathing = false;
+    public boolean useLandmarkHeuristic = false;
+    public boolean useCooperativePathing = false;
+    public boolean useSimulationThread = false;
+    /** What a frame does with the time it can't simulate within its budget, or null to simulate all of it. */
+    public FrameBudget.Policy frameBudgetPolicy = null;
 
     public ImageLibrary imageLibrary;
     public World world;
     public WorldView view;
     public EventScheduler scheduler;
+    /** Limits the simulation each frame runs, or null. */
+    public FrameBudget frameBudget;
+
+    /** Steps the world on its own thread when 'useSimulationThread' is set, once the first frame is drawn. */
+    private SimulationThread simulation;
 
     /** Entrypoint that runs the Processing applet. */
     public static void main(String[] args) {
@@ -60,9 +98,52 @@ public final class VirtualWorld extends PApplet {
 
         loadImageLibrary(IMAGE_LIST_FILE_NAME);
         loadWorld(worldString, imageLibrary);
+        world.setFlowFieldPathing(useFlowFields);
+        world.setConnectivityPruning(useConnectivityPruning);
+        world.setReachableTargetSearch(useReachableTargetSearch);
+        world.setCooperativePathing(useCooperativePathing);
+        if (useLandmarkHeuristic && world.hasCellIndices()) {
+            world.getPathfinder().setLandmarkHeuristic(world.getLandmarkHeuristic());
+        }
+        if (useTimeSlicedPathing) {
+            world.setPathingNodeBudget(PATHING_NODE_BUDGET);
+        }
+        if (useJumpPointSearch) {
+            PathingStrategy jumpPointSearch = new JumpPointPathingStrategy();
+            for (Class<? extends Entity> mover : List.of(Dude.class, Fairy.class, Car.class, BadDude.class)) {
+                world.setPathingStrategy(mover, jumpPointSearch);
+            }
+        }
+        if (useHierarchicalPathing) {
+            world.setPathingStrategy(Dude.class, world.getHierarchicalPathfinder(Dude.PASSABILITY));
+            world.setPathingStrategy(Fairy.class, world.getHierarchicalPathfinder(Fairy.PASSABILITY));
+            world.setPathingStrategy(Car.class, world.getHierarchicalPathfinder(Car.PASSABILITY));
+            world.setPathingStrategy(BadDude.class, world.getHierarchicalPathfinder(BadDude.PASSABILITY));
+        }
 
         view = new WorldView(VIEW_ROWS, VIEW_COLS, this, VIEW_SCALE, world, TILE_WIDTH, TILE_HEIGHT);
-        scheduler = new EventScheduler();
+        view.setImageAtlas(imageLibrary.getAtlas());
+        if (usePackedEvents) {
+            scheduler = new EventScheduler(new PackedEventQueue());
+        } else if (useTimingWheel) {
+            scheduler = new EventScheduler(new TimingWheel());
+        } else {
+            scheduler = new EventScheduler();
+        }
+        scheduler.setLazyAnimation(useLazyAnimation);
+        if (useParallelPathing) {
+            scheduler.setPathPrecomputer(new PathPrecomputer());
+        }
+        if (useCooperativePathing) {
+            scheduler.setReservationTable(world.getReservationTable());
+        }
+        if (useTimeSlicedPathing) {
+            scheduler.setPathingBudgetWorld(world);
+        }
+        if (frameBudgetPolicy != null) {
+            // The time budget is in wall-clock seconds, so faster time scales simulate more per frame
+            frameBudget = new FrameBudget(FRAME_TIME_BUDGET / timeScale, FRAME_EVENT_BUDGET, frameBudgetPolicy);
+        }
         startTimeMillis = System.currentTimeMillis();
 
         scheduleActions(world, scheduler, imageLibrary);
@@ -76,15 +157,49 @@ public final class VirtualWorld extends PApplet {
                 case FASTER_FLAG -> timeScale = Math.min(FASTER_SCALE, timeScale);
                 case FASTEST_FLAG -> timeScale = Math.min(FASTEST_SCALE, timeScale);
                 case WORLD_STRING_FLAG -> worldStringIsFilePath = false;
+                case TIMING_WHEEL_FLAG -> useTimingWheel = true;
+                case PACKED_EVENTS_FLAG -> usePackedEvents = true;
+                case LAZY_ANIMATION_FLAG -> useLazyAnimation = true;
+                case FLOW_FIELD_FLAG -> useFlowFields = true;
+                case JUMP_POINT_FLAG -> useJumpPointSearch = true;
+                case HIERARCHICAL_PATHING_FLAG -> useHierarchicalPathing = true;
+                case CONNECTIVITY_FLAG -> useConnectivityPruning = true;
+                case REACHABLE_TARGET_FLAG -> useReachableTargetSearch = true;
+                case TIME_SLICED_PATHING_FLAG -> useTimeSlicedPathing = true;
+                case PARALLEL_PATHING_FLAG -> useParallelPathing = true;
+                case LANDMARK_HEURISTIC_FLAG -> useLandmarkHeuristic = true;
+                case COOPERATIVE_PATHING_FLAG -> useCooperativePathing = true;
+                case SIMULATION_THREAD_FLAG -> useSimulationThread = true;
+                case CATCH_UP_FLAG -> frameBudgetPolicy = FrameBudget.Policy.CATCH_UP;
+                case DROP_LAG_FLAG -> frameBudgetPolicy = FrameBudget.Policy.DROP;
                 default -> worldString = arg;
             }
         }
+
+        // Each of these picks the event queue, so only one can take effect
+        rejectCombination(PACKED_EVENTS_FLAG, usePackedEvents, TIMING_WHEEL_FLAG, useTimingWheel);
+        // Each of these replaces the movers' pathing strategies
+        rejectCombination(HIERARCHICAL_PATHING_FLAG, useHierarchicalPathing, JUMP_POINT_FLAG, useJumpPointSearch);
+        // Parallel planning is skipped by these, which plan paths their own way or dispatch packed events serially
+        rejectCombination(PARALLEL_PATHING_FLAG, useParallelPathing, FLOW_FIELD_FLAG, useFlowFields);
+        rejectCombination(PARALLEL_PATHING_FLAG, useParallelPathing, REACHABLE_TARGET_FLAG, useReachableTargetSearch);
+        rejectCombination(PARALLEL_PATHING_FLAG, useParallelPathing, COOPERATIVE_PATHING_FLAG, useCooperativePathing);
+        rejectCombination(PARALLEL_PATHING_FLAG, useParallelPathing, TIME_SLICED_PATHING_FLAG, useTimeSlicedPathing);
+        rejectCombination(PARALLEL_PATHING_FLAG, useParallelPathing, PACKED_EVENTS_FLAG, usePackedEvents);
+    }
+
+    /** Throws an 'IllegalArgumentException' if two flags that can't be used together were both given. */
+    private static void rejectCombination(String flag, boolean used, String otherFlag, boolean otherUsed) {
+        if (used && otherUsed) {
+            throw new IllegalArgumentException(String.format("%s can't be combined with %s", flag, otherFlag));
+        }
     }
 
     /** Loads the image library. */
     public void loadImageLibrary(String filename) {
         imageLibrary = new ImageLibrary(ImageLibrary.createImageColored(TILE_WIDTH, TILE_HEIGHT, DEFAULT_IMAGE_COLOR));
         imageLibrary.loadFromFile(filename, this);
+        imageLibrary.buildAtlas(VIEW_SCALE);
     }
 
     /** Loads the world. */
@@ -107,14 +222,37 @@ public final class VirtualWorld extends PApplet {
 
     /** Called multiple times automatically per second. */
     public void draw() {
+        if (!useSimulationThread) {
+            simulationStep();
+            view.drawViewport();
+            return;
+        }
+
+        // Started on the first frame rather than in 'setup', so headless runs never step concurrently
+        if (simulation == null) {
+            world.removeBackgroundListener(view);
+            simulation = new SimulationThread(world, this::simulationStep, VIEW_ROWS, VIEW_COLS);
+            simulation.start(view.getViewport().getCol(), view.getViewport().getRow());
+        }
+        simulation.requestViewport(view.getViewport().getCol(), view.getViewport().getRow());
+        view.drawSnapshot(simulation.takeSnapshot());
+    }
+
+    /** Advances the simulation to the current wall-clock time, or as far toward it as the frame budget allows. */
+    public void simulationStep() {
         double appTime = (System.currentTimeMillis() - startTimeMillis) * 0.001;
+        if (frameBudget != null) {
+            world.startPathingFrame();
+            frameBudget.update(scheduler, appTime / timeScale);
+            return;
+        }
         double frameTime = appTime / timeScale - scheduler.getCurrentTime();
         update(frameTime);
-        view.drawViewport();
     }
 
     /** Performs update logic. */
     public void update(double frameTime){
+        world.startPathingFrame();
         scheduler.updateOnTime(frameTime);
     }
 
@@ -122,7 +260,15 @@ public final class VirtualWorld extends PApplet {
     public void mousePressed() {
         Point pressed = mouseToPoint();
         System.out.println("Click Location (" + pressed.x + ", " + pressed.y + ")");
+        if (simulation != null) {
+            simulation.submit(() -> click(pressed));
+        } else {
+            click(pressed);
+        }
+    }
 
+    /** Changes the world at a clicked location. Runs on the thread that updates the world. */
+    private void click(Point pressed) {
         Optional<Entity> entityOptional = world.getOccupant(pressed);
         if (entityOptional.isPresent()) {
             Entity entity = entityOptional.get();
@@ -148,9 +294,11 @@ public final class VirtualWorld extends PApplet {
             world.addEntity(car);
             car.scheduleActions(scheduler, world, imageLibrary);
             world.setBackgroundCell(pressed, new Background("road", imageLibrary.get("road"), 0));
-            long unused = PathingStrategy.CARDINAL_NEIGHBORS.apply(pressed).filter(world::inBounds).peek(x -> {
-                world.setBackgroundCell(x, new Background("road", imageLibrary.get("road"), 0));
-            }).count();
+            CardinalNeighbors.forEach(pressed.x, pressed.y, (x, y) -> {
+                if (world.inBounds(x, y)) {
+                    world.setBackgroundCell(new Point(x, y), new Background("road", imageLibrary.get("road"), 0));
+                }
+            });
         }
     }
 
@@ -4,6 +4,7 @@ import java.util.List;
 
 public class WaterTrail extends Actions implements Transformable{
     public static final String WATER_TRAIL_KEY = "water_trail";
+    public static final int WATER_TRAIL_FINAL_IMAGE_INDEX = 5;
 
     /**
      * Constructs an Entity with specified characteristics.
@@ -26,16 +27,23 @@ public class WaterTrail extends Actions implements Transformable{
 
     @Override
     public void executeBehavior(World world, ImageLibrary imageLibrary, EventScheduler scheduler) {
-        if (getImageIndex() >= 5) {
+        if (getImageIndex() >= WATER_TRAIL_FINAL_IMAGE_INDEX) {
             this.transform(world, imageLibrary, scheduler);
+        } else if (isAnimationLazy()) {
+            // 'updateImage' isn't called, so check back when the image index gets there
+            scheduler.scheduleBehavior(this, world, imageLibrary, getTimeUntilImageIndex(WATER_TRAIL_FINAL_IMAGE_INDEX));
         } else {
-            scheduleBehavior(scheduler, world, imageLibrary);
+            // Nothing to do until 'updateImage' reaches the last image
+            park(scheduler, world, imageLibrary);
         }
     }
 
     @Override
     public void updateImage(){
         setImageIndex(getImageIndex() + 1);
+        if (getImageIndex() >= WATER_TRAIL_FINAL_IMAGE_INDEX) {
+            wake();
+        }
     }
 
     @Override
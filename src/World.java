@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Represents the 2D World in which this simulation is running.
@@ -6,27 +7,129 @@ import java.util.*;
  * location in the world, and the entities that populate the world.
  */
 public final class World {
+    /** Occupancy slot value of a location without an entity. */
+    public static final int EMPTY_SLOT = 0;
+
+    /** Tile id value of a location without a background. */
+    public static final short NO_TILE = 0;
+
+    /** Worlds with more locations than this use chunked storage instead of flat arrays. */
+    public static final long CHUNKED_STORAGE_THRESHOLD = 1L << 20;
+
+    /** Default pathing strategy of worlds whose locations can't be indexed with an int. Keeps no state between searches. */
+    private static final PathingStrategy POINT_PATHFINDER = new AStarPathingStrategy();
+
     /** World height. */
     private final int numRows;
 
     /** World width. */
     private final int numCols;
 
-    /** Background tile grid. */
-    private final Background[][] background;
+    /** Entity slot and background tile id grids. */
+    private final WorldStorage storage;
+
+    /** Distinct background tiles, indexed by the tile ids in 'storage'. Index 'NO_TILE' is unused. */
+    private final List<Background> palette;
+
+    /** Tile ids of the backgrounds in 'palette'. */
+    private final Map<Background, Short> paletteIds;
+
+    /** Entities indexed by the slots in 'storage'. Index 'EMPTY_SLOT' is unused. */
+    private Entity[] slotEntities;
+
+    /** Released world slots available for reuse. */
+    private int[] freeSlots;
+
+    /** Number of valid elements of 'freeSlots'. */
+    private int freeSlotCount;
 
-    /** Entity grid. */
-    private final Entity[][] occupancy;
+    /** Next never-used world slot. */
+    private int nextSlot;
 
-    /** Entity set. Must be synchronized with the 'occupancy' grid. */
+    /** Entity set. Must be synchronized with the entity slot grid in 'storage'. */
     private final Set<Entity> entities;
 
+    /** Entities bucketed by kind and location. Must be synchronized with the entity slot grid in 'storage'. */
+    private final SpatialIndex spatialIndex;
+
+    /** Listeners notified of every change to the occupancy grid. */
+    private final List<OccupancyListener> occupancyListeners;
+
+    /** Listeners notified of every change to the background tile grid. */
+    private final List<BackgroundListener> backgroundListeners;
+
+    /** Shared flow fields, keyed by their goal kinds and passability. */
+    private final Map<FlowFieldKey, FlowFieldPathingStrategy> flowFields;
+
+    /** Reusable A* search state sized to this world. Created on first use. */
+    private GridAStarPathingStrategy pathfinder;
+
+    /** Reusable nearest-target search state sized to this world. Created on first use. */
+    private NearestTargetSearch nearestTargetSearch;
+
+    /** Hierarchical pathfinders, keyed by the passability they were built for. */
+    private final Map<Passability, HierarchicalPathingStrategy> hierarchicalPathfinders;
+
+    /** Space-time claims of cooperating movers. Created on first use. */
+    private ReservationTable reservationTable;
+
+    /** Planner of cooperating movers' paths around each other's reservations. Created on first use. */
+    private CooperativePathfinder cooperativePathfinder;
+
+    /** Landmark distances over the static terrain. Created on first use. */
+    private LandmarkHeuristic landmarkHeuristic;
+
+    /** Connectivity indexes, keyed by the passability they were built for. */
+    private final Map<Passability, ConnectivityIndex> connectivityIndexes;
+
+    /** Pathing strategies selected for particular entity classes, instead of 'pathfinder'. */
+    private final Map<Class<? extends Entity>, PathingStrategy> pathingStrategies;
+
+    /** Whether movers path with shared flow fields instead of searching individually. */
+    private boolean flowFieldPathing;
+
+    /** Whether movers skip targets they can't reach when choosing the nearest one. */
+    private boolean connectivityPruning;
+
+    /** Whether movers choose the nearest target by path length, finding the first step in the same search. */
+    private boolean reachableTargetSearch;
+
+    /** Whether movers reserve their next steps and plan around each other's reservations. */
+    private boolean cooperativePathing;
+
+    /** Most locations movers may expand searching for paths per frame or simulated timestamp, or 0 for no limit. */
+    private int pathingNodeBudget;
+
+    /** Locations movers may still expand this frame. */
+    private int pathingNodesLeft;
+
     public World(int numRows, int numCols) {
         this.numRows = numRows;
         this.numCols = numCols;
-        this.background = new Background[numRows][numCols];
-        this.occupancy = new Entity[numRows][numCols];
+        this.storage = (long) numRows * numCols > CHUNKED_STORAGE_THRESHOLD
+                ? new ChunkedWorldStorage(numRows, numCols)
+                : new FlatWorldStorage(numRows, numCols);
+        this.palette = new ArrayList<>();
+        this.palette.add(null);
+        this.paletteIds = new HashMap<>();
+        this.slotEntities = new Entity[16];
+        this.freeSlots = new int[16];
+        this.freeSlotCount = 0;
+        this.nextSlot = EMPTY_SLOT + 1;
         this.entities = new HashSet<>();
+        this.spatialIndex = new SpatialIndex(numRows, numCols);
+        this.occupancyListeners = new ArrayList<>();
+        this.backgroundListeners = new ArrayList<>();
+        this.flowFields = new HashMap<>();
+        this.pathingStrategies = new HashMap<>();
+        this.hierarchicalPathfinders = new EnumMap<>(Passability.class);
+        this.connectivityIndexes = new EnumMap<>(Passability.class);
+        this.flowFieldPathing = false;
+        this.connectivityPruning = false;
+        this.reachableTargetSearch = false;
+        this.cooperativePathing = false;
+        this.pathingNodeBudget = 0;
+        this.pathingNodesLeft = 0;
     }
 
     /** Logging used for testing. Do not move or modify this method. */
@@ -40,20 +143,55 @@ public final class World {
 
     /** Returns 'true' if the given point is within the world. */
     public boolean inBounds(Point position) {
-        return position.y >= 0 && position.y < numRows && position.x >= 0 && position.x < numCols;
+        return inBounds(position.x, position.y);
+    }
+
+    /** Returns 'true' if the given coordinates are within the world. */
+    public boolean inBounds(int x, int y) {
+        return y >= 0 && y < numRows && x >= 0 && x < numCols;
     }
 
     /** Returns 'true' if the given point contains an entity. */
     public boolean isOccupied(Point position) {
-        return occupancy[position.y][position.x] != null;
+        checkBounds(position.x, position.y);
+        return storage.getSlot(position.x, position.y) != EMPTY_SLOT;
     }
 
     /** Returns the (optional) entity at the given point. */
     public Optional<Entity> getOccupant(Point position) {
-        if (inBounds(position) && isOccupied(position)) {
-            return Optional.of(occupancy[position.y][position.x]);
-        } else {
-            return Optional.empty();
+        return Optional.ofNullable(getOccupancyCell(position));
+    }
+
+    /** Returns the entity at the given point or null if there isn't one. Does not allocate. */
+    public Entity getOccupancyCell(Point position) {
+        return slotEntities[occupantSlotAt(position.x, position.y)];
+    }
+
+    /** Returns the slot of the entity at the given coordinates, or 'EMPTY_SLOT'. Does not allocate. */
+    public int occupantSlotAt(int x, int y) {
+        return inBounds(x, y) ? storage.getSlot(x, y) : EMPTY_SLOT;
+    }
+
+    /** Returns the entity stored in the given slot, or null for 'EMPTY_SLOT'. */
+    public Entity getSlotEntity(int slot) {
+        return slotEntities[slot];
+    }
+
+    /**
+     * Visits the entities within a rectangle of the world, row by row and left to right. Parts of the rectangle
+     * outside the world are ignored. Takes time proportional to the clipped area, not to the number of entities.
+     */
+    public void forEachEntityIn(int x, int y, int width, int height, Consumer<Entity> action) {
+        int fromX = Math.max(x, 0);
+        int toX = Math.min(x + width, numCols);
+        int toY = Math.min(y + height, numRows);
+        for (int row = Math.max(y, 0); row < toY; row++) {
+            for (int col = fromX; col < toX; col++) {
+                int slot = storage.getSlot(col, row);
+                if (slot != EMPTY_SLOT) {
+                    action.accept(slotEntities[slot]);
+                }
+            }
         }
     }
 
@@ -80,16 +218,150 @@ public final class World {
 
     /** Returns the (optional) nearest world entity of the given kind(s) to the point.*/
     public Optional<Entity> findNearest(Point position, List<Class<? extends Entity>> kinds) {
-        List<Entity> ofType = new LinkedList<>();
-        for (Class<? extends Entity> kind : kinds) {
-            for (Entity entity : this.entities) {
-                if (kind.isInstance(entity)) { // TODO to whoever grades my work- I just want you to know that this single line had a typo that caused 12/21 tests to fail and for nothing to happen... i fixed the line and everything just worked after
-                    ofType.add(entity);
-                }
-            }
+        return spatialIndex.findNearest(position, kinds);
+    }
+
+    /**
+     * Returns the (optional) nearest world entity of the given kind(s) to the point for a mover with the given passability.
+     * With connectivity pruning, entities the mover can't reach are skipped.
+     */
+    public Optional<Entity> findNearest(Point position, List<Class<? extends Entity>> kinds, Passability passability) {
+        if (!connectivityPruning) {
+            return findNearest(position, kinds);
+        }
+        ConnectivityIndex connectivity = getConnectivityIndex(passability);
+        return spatialIndex.findNearest(position, kinds, entity -> connectivity.canReach(position, entity.getPosition()));
+    }
+
+    /**
+     * Returns the (optional) world entity of the given kind(s) with the shortest path from the point for a mover with
+     * the given passability, along with the first step of that path. Searches breadth-first and stops at the first
+     * location next to a matching entity. Not thread-safe.
+     */
+    public Optional<ReachableTarget> findNearestReachable(Point start, List<Class<? extends Entity>> kinds, Passability passability) {
+        if (spatialIndex.findNearest(start, kinds).isEmpty()) {
+            return Optional.empty();
+        }
+        if (nearestTargetSearch == null) {
+            nearestTargetSearch = new NearestTargetSearch(numRows, numCols);
+        }
+        return nearestTargetSearch.find(this, start, kinds, passability);
+    }
+
+    /**
+     * Returns the pathing strategy of the flow field toward the given kind(s) for the given passability.
+     * Fields are created on first use and kept up to date with the occupancy grid afterward.
+     */
+    public FlowFieldPathingStrategy getFlowField(List<Class<? extends Entity>> kinds, Passability passability) {
+        return flowFields.computeIfAbsent(new FlowFieldKey(List.copyOf(kinds), passability), key -> {
+            FlowField field = new FlowField(this, key.kinds(), key.passability());
+            addOccupancyListener(field);
+            return new FlowFieldPathingStrategy(field);
+        });
+    }
+
+    /**
+     * Returns the A* search shared by the movers of this world, or null if the world has too many locations to
+     * index them with an int. Not thread-safe.
+     */
+    public GridAStarPathingStrategy getPathfinder() {
+        if (pathfinder == null && hasCellIndices()) {
+            pathfinder = new GridAStarPathingStrategy(numRows, numCols);
+        }
+        return pathfinder;
+    }
+
+    /** Returns 'true' if every location's 'y * numCols + x' fits in an int, as grid searches and planned paths need. */
+    public boolean hasCellIndices() {
+        return (long) numRows * numCols <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the hierarchical pathfinder for the given passability.
+     * Pathfinders are created on first use and kept up to date with the occupancy grid afterward.
+     */
+    public HierarchicalPathingStrategy getHierarchicalPathfinder(Passability passability) {
+        return hierarchicalPathfinders.computeIfAbsent(passability, key -> {
+            HierarchicalPathingStrategy pathfinder = new HierarchicalPathingStrategy(this, key);
+            addOccupancyListener(pathfinder);
+            return pathfinder;
+        });
+    }
+
+    /**
+     * Returns the connectivity index for the given passability.
+     * Indexes are created on first use and kept up to date with the occupancy grid afterward.
+     */
+    public ConnectivityIndex getConnectivityIndex(Passability passability) {
+        return connectivityIndexes.computeIfAbsent(passability, key -> {
+            ConnectivityIndex index = new ConnectivityIndex(this, key);
+            addOccupancyListener(index);
+            return index;
+        });
+    }
+
+    /**
+     * Returns the landmark heuristic of this world's static terrain.
+     * It is created on first use and kept up to date with the occupancy grid afterward.
+     */
+    public LandmarkHeuristic getLandmarkHeuristic() {
+        if (landmarkHeuristic == null) {
+            landmarkHeuristic = new LandmarkHeuristic(this, LandmarkHeuristic.DEFAULT_LANDMARK_COUNT);
+            addOccupancyListener(landmarkHeuristic);
+        }
+        return landmarkHeuristic;
+    }
+
+    /** Returns the reservations of this world's cooperating movers. Its time has to be advanced by the scheduler. */
+    public ReservationTable getReservationTable() {
+        if (reservationTable == null) {
+            reservationTable = new ReservationTable();
+        }
+        return reservationTable;
+    }
+
+    /** Returns the planner cooperating movers share, which plans around 'getReservationTable'. Not thread-safe. */
+    public CooperativePathfinder getCooperativePathfinder() {
+        if (cooperativePathfinder == null) {
+            cooperativePathfinder = new CooperativePathfinder(this, getReservationTable());
         }
+        return cooperativePathfinder;
+    }
 
-        return nearestEntity(ofType, position);
+    /**
+     * Returns the pathing strategy selected for the given entity class, or by default the shared A* search,
+     * or for worlds without cell indices the A* search over points.
+     */
+    public PathingStrategy getPathingStrategy(Class<? extends Entity> kind) {
+        PathingStrategy strategy = pathingStrategies.get(kind);
+        if (strategy != null) {
+            return strategy;
+        }
+        return hasCellIndices() ? getPathfinder() : POINT_PATHFINDER;
+    }
+
+    /** Selects the pathing strategy of the given entity class. A null strategy restores the default. */
+    public void setPathingStrategy(Class<? extends Entity> kind, PathingStrategy strategy) {
+        if (strategy == null) {
+            pathingStrategies.remove(kind);
+        } else {
+            pathingStrategies.put(kind, strategy);
+        }
+    }
+
+    /** Registers a listener to be notified of every change to the occupancy grid. */
+    public void addOccupancyListener(OccupancyListener listener) {
+        occupancyListeners.add(listener);
+    }
+
+    /** Registers a listener to be notified of every change to the background tile grid. */
+    public void addBackgroundListener(BackgroundListener listener) {
+        backgroundListeners.add(listener);
+    }
+
+    /** Stops notifying the given listener of changes to the background tile grid. */
+    public void removeBackgroundListener(BackgroundListener listener) {
+        backgroundListeners.remove(listener);
     }
 
     /** Attempts to add an entity to the world. */
@@ -107,6 +379,7 @@ public final class World {
 
         setOccupancyCell(entity.getPosition(), entity);
         entities.add(entity);
+        spatialIndex.add(entity);
     }
 
     /** Moves an entity in the world, updating data structures as necessary. */
@@ -118,6 +391,7 @@ public final class World {
             occupant.ifPresent(target -> removeEntity(scheduler, target));
             setOccupancyCell(position, entity);
             entity.setPosition(position);
+            spatialIndex.move(entity, oldPos, position);
         }
     }
 
@@ -133,39 +407,112 @@ public final class World {
         if (potentialEntity.isPresent()) {
             Entity entity = potentialEntity.get();
 
+            spatialIndex.remove(entity, position);
+
             // Moves the entity just outside the grid for debugging purposes.
             entity.setPosition(new Point(-1, -1));
             entities.remove(entity);
             setOccupancyCell(position, null);
+            releaseSlot(entity);
+            if (reservationTable != null) {
+                reservationTable.release(entity);
+            }
         }
     }
 
     /** Updates the entity occupancy grid at the given point. */
     public void setOccupancyCell(Point position, Entity entity) {
-        occupancy[position.y][position.x] = entity;
+        checkBounds(position.x, position.y);
+        storage.setSlot(position.x, position.y, entity == null ? EMPTY_SLOT : slotOf(entity));
+        for (OccupancyListener listener : occupancyListeners) {
+            listener.occupancyChanged(position.x, position.y);
+        }
     }
 
     /** Updates the background tile grid at the given point. */
     public void setBackgroundCell(Point position, Background background) {
-        this.background[position.y][position.x] = background;
+        checkBounds(position.x, position.y);
+        short tileId = background == null ? NO_TILE : tileIdOf(background);
+        if (storage.getTileId(position.x, position.y) == tileId) {
+            return;
+        }
+        storage.setTileId(position.x, position.y, tileId);
+        for (BackgroundListener listener : backgroundListeners) {
+            listener.backgroundChanged(position.x, position.y);
+        }
     }
 
     /** Returns 'true' if the given point contains a background tile. */
     public boolean hasBackground(Point position) {
-        return background[position.y][position.x] != null;
+        checkBounds(position.x, position.y);
+        return storage.getTileId(position.x, position.y) != NO_TILE;
     }
 
     /** Returns a background tile at the given point or null if one doesn't exist. */
     public Background getBackgroundCell(Point position) {
-        return background[position.y][position.x];
+        checkBounds(position.x, position.y);
+        return palette.get(storage.getTileId(position.x, position.y));
     }
 
     /** Returns the (optional) background tile at the given point. */
     public Optional<Background> getBackground(Point position) {
-        if (inBounds(position) && hasBackground(position)) {
-            return Optional.of(background[position.y][position.x]);
-        } else {
-            return Optional.empty();
+        return Optional.ofNullable(getTile(tileIdAt(position.x, position.y)));
+    }
+
+    /** Returns the tile id of the background at the given coordinates, or 'NO_TILE'. Does not allocate. */
+    public short tileIdAt(int x, int y) {
+        return inBounds(x, y) ? storage.getTileId(x, y) : NO_TILE;
+    }
+
+    /** Returns the background tile with the given id, or null for 'NO_TILE'. */
+    public Background getTile(short tileId) {
+        return palette.get(tileId);
+    }
+
+    /** Returns the tile id of a background, adding it to the palette if it is new. */
+    private short tileIdOf(Background background) {
+        Short tileId = paletteIds.get(background);
+        if (tileId == null) {
+            if (palette.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct background tiles");
+            }
+            tileId = (short) palette.size();
+            palette.add(background);
+            paletteIds.put(background, tileId);
+        }
+        return tileId;
+    }
+
+    /** Returns the world slot of an entity, assigning a free one if it doesn't have one yet. */
+    private int slotOf(Entity entity) {
+        if (entity.getWorldSlot() == EMPTY_SLOT) {
+            int slot = freeSlotCount > 0 ? freeSlots[--freeSlotCount] : nextSlot++;
+            if (slot >= slotEntities.length) {
+                slotEntities = Arrays.copyOf(slotEntities, slotEntities.length * 2);
+            }
+            slotEntities[slot] = entity;
+            entity.setWorldSlot(slot);
+        }
+        return entity.getWorldSlot();
+    }
+
+    /** Releases the world slot of an entity that left the world. */
+    private void releaseSlot(Entity entity) {
+        int slot = entity.getWorldSlot();
+        if (slot != EMPTY_SLOT) {
+            slotEntities[slot] = null;
+            entity.setWorldSlot(EMPTY_SLOT);
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+        }
+    }
+
+    /** Mirrors the bounds errors of indexing a 2D grid directly. */
+    private void checkBounds(int x, int y) {
+        if (!inBounds(x, y)) {
+            throw new ArrayIndexOutOfBoundsException(String.format("World position (%d,%d) out of bounds", x, y));
         }
     }
 
@@ -181,4 +528,67 @@ public final class World {
         return entities;
     }
 
+    public boolean isFlowFieldPathing() {
+        return flowFieldPathing;
+    }
+
+    public void setFlowFieldPathing(boolean flowFieldPathing) {
+        this.flowFieldPathing = flowFieldPathing;
+    }
+
+    public boolean isConnectivityPruning() {
+        return connectivityPruning;
+    }
+
+    public void setConnectivityPruning(boolean connectivityPruning) {
+        this.connectivityPruning = connectivityPruning;
+    }
+
+    public boolean isReachableTargetSearch() {
+        return reachableTargetSearch;
+    }
+
+    public void setReachableTargetSearch(boolean reachableTargetSearch) {
+        this.reachableTargetSearch = reachableTargetSearch;
+    }
+
+    public boolean isCooperativePathing() {
+        return cooperativePathing;
+    }
+
+    public void setCooperativePathing(boolean cooperativePathing) {
+        this.cooperativePathing = cooperativePathing;
+    }
+
+    public int getPathingNodeBudget() {
+        return pathingNodeBudget;
+    }
+
+    /** Limits how many locations movers expand searching for paths per frame. 0 removes the limit. */
+    public void setPathingNodeBudget(int pathingNodeBudget) {
+        if (pathingNodeBudget < 0) {
+            throw new IllegalArgumentException("Pathing node budget must not be negative: " + pathingNodeBudget);
+        }
+        this.pathingNodeBudget = pathingNodeBudget;
+        this.pathingNodesLeft = pathingNodeBudget;
+    }
+
+    /** Refills the pathing node budget at the start of a frame or of a new simulated timestamp. */
+    public void startPathingFrame() {
+        pathingNodesLeft = pathingNodeBudget;
+    }
+
+    public int getPathingNodesLeft() {
+        return pathingNodesLeft;
+    }
+
+    /** Takes expanded locations out of this frame's pathing node budget. */
+    public void spendPathingNodes(int nodes) {
+        pathingNodesLeft = Math.max(0, pathingNodesLeft - nodes);
+    }
+
+    /** Identifies a shared flow field. */
+    private record FlowFieldKey(List<Class<? extends Entity>> kinds, Passability passability) {
+    }
+
 }
@@ -0,0 +1,18 @@
+/**
+ * Backing store for the per-location data of a world: the occupancy slot
+ * and the background tile id of every location. Callers are responsible
+ * for only passing coordinates that are within the world.
+ */
+public interface WorldStorage {
+    /** Returns the occupancy slot at the given location, or 'World.EMPTY_SLOT'. */
+    int getSlot(int x, int y);
+
+    /** Updates the occupancy slot at the given location. */
+    void setSlot(int x, int y, int slot);
+
+    /** Returns the background tile id at the given location, or 'World.NO_TILE'. */
+    short getTileId(int x, int y);
+
+    /** Updates the background tile id at the given location. */
+    void setTileId(int x, int y, short tileId);
+}
@@ -1,9 +1,12 @@
 import org.junit.jupiter.api.Test;
+import processing.core.PImage;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -77,6 +80,335 @@ public class WorldTests {
         );
     }
 
+    @Test
+    public void testSpatialIndexNearest() {
+        SpatialIndex index = new SpatialIndex(24, 24);
+        List<Class<? extends Entity>> kinds = List.of(Stump.class);
+        for (Point position : List.of(new Point(0, 0), new Point(9, 0), new Point(11, 8), new Point(8, 5), new Point(5, 8), new Point(15, 15), new Point(23, 7))) {
+            index.add(new Stump(position.x + " " + position.y, position, List.of()));
+        }
+
+        // A neighboring cell's entity beats a farther one in the query's own cell
+        assertEquals("9 0", index.findNearest(new Point(7, 0), kinds).orElseThrow().getId());
+        // Equally near entities in the query's cell and the next ring go by row, then column
+        assertEquals("8 5", index.findNearest(new Point(8, 8), kinds).orElseThrow().getId());
+        // An entity two rings out ties with one a ring out, and the search goes on to find it
+        assertEquals("23 7", index.findNearest(new Point(23, 23), kinds).orElseThrow().getId());
+    }
+
+    @Test
+    public void testChunkedWorld() {
+        String sav = makeSave(1100, 1000, "dude test 62 500 1.0 100.0 1", "tree  67 500 0.1 100.0 100", "stump  0 0");
+        List<String> entities = VirtualWorld.headlessMain(new String[]{"-string", sav}, 5);
+
+        assertEquals(1, entities.size());
+        assertEquals("test 66 500 0", entities.get(0));
+    }
+
+    @Test
+    public void testEventHeapCancellation() {
+        EventScheduler scheduler = new EventScheduler(new EventHeap());
+        List<String> fired = new ArrayList<>();
+        List<Fairy> fairies = new ArrayList<>();
+        for (String id : List.of("a", "b", "c")) {
+            fairies.add(new Fairy(id, new Point(0, 0), List.of(), 1, 1));
+        }
+
+        // Interleaved events of three entities, all at the same time, scheduled after a later one
+        scheduler.scheduleEvent(fairies.get(0), recordingAction(fairies.get(0), "a3", fired), 2.0);
+        for (int round = 1; round <= 2; round++) {
+            for (Fairy fairy : fairies) {
+                scheduler.scheduleEvent(fairy, recordingAction(fairy, fairy.getId() + round, fired), 1.0);
+            }
+        }
+        scheduler.unscheduleAllEvents(fairies.get(1));
+        scheduler.updateOnTime(3.0);
+
+        assertEquals(List.of("a1", "c1", "a2", "c2", "a3"), fired);
+    }
+
+    /** Returns an action that adds the given name to 'fired' when it runs. */
+    private static Action recordingAction(Actions entity, String name, List<String> fired) {
+        return new Action(entity) {
+            @Override
+            public void execute(EventScheduler scheduler) {
+                fired.add(name);
+            }
+        };
+    }
+
+    @Test
+    public void testTimingWheelScheduler() {
+        String sav = makeSave(2, 4, "tree  1 0 0.1 100.0 2", "water  2 0", "house  0 1", "dude test 1 1 1.0 0.1 2", "tree  3 1 0.1 100.0 100");
+        List<String> heapEntities = VirtualWorld.headlessMain(new String[]{"-string", sav}, 5.0);
+        List<String> wheelEntities = VirtualWorld.headlessMain(new String[]{"-wheel", "-string", sav}, 5.0);
+
+        assertEquals(Set.copyOf(heapEntities), Set.copyOf(wheelEntities));
+        assertTrue(wheelEntities.stream().anyMatch("test 2 1 20"::equals));
+    }
+
+    @Test
+    public void testPackedEventScheduler() {
+        String sav = makeSave(2, 4, "tree  1 0 0.1 100.0 2", "water  2 0", "house  0 1", "dude test 1 1 1.0 0.1 2", "fairy fairy 3 1 1.0 0.3");
+        List<String> heapEntities = VirtualWorld.headlessMain(new String[]{"-string", sav}, 5.0);
+        List<String> packedEntities = VirtualWorld.headlessMain(new String[]{"-packed", "-string", sav}, 5.0);
+
+        assertEquals(Set.copyOf(heapEntities), Set.copyOf(packedEntities));
+    }
+
+    @Test
+    public void testConflictingFlags() {
+        assertThrows(IllegalArgumentException.class, () -> new VirtualWorld().parseCommandLine(new String[]{"-packed", "-wheel"}));
+        assertThrows(IllegalArgumentException.class, () -> new VirtualWorld().parseCommandLine(new String[]{"-jps", "-hpa"}));
+        assertThrows(IllegalArgumentException.class, () -> new VirtualWorld().parseCommandLine(new String[]{"-parallel", "-flowfield"}));
+    }
+
+    @Test
+    public void testPackedEventQueueRelease() {
+        PackedEventQueue queue = new PackedEventQueue();
+        Fairy fairy = new Fairy("", new Point(0, 0), List.of(), 1, 1);
+        Entity water = new Water("", new Point(1, 0), List.of());
+        int cancelled = queue.add(fairy, 1.0, PackedEventQueue.ACTION, 0, new Animation(fairy, 1), null, null);
+        int polled = queue.add(water, 2.0, PackedEventQueue.ACTION, 0, new Animation(fairy, 1), null, null);
+
+        // Removed and released events no longer hold their entity or action
+        queue.remove(cancelled);
+        assertNull(queue.getAction(cancelled));
+        assertNull(queue.getEntity(cancelled));
+        assertEquals(polled, queue.poll());
+        assertEquals(water, queue.getEntity(polled));
+        queue.release(polled);
+        assertNull(queue.getAction(polled));
+        assertNull(queue.getEntity(polled));
+        assertEquals(PackedEventQueue.NONE, water.getSchedulerSlot());
+    }
+
+    @Test
+    public void testLazyAnimation() {
+        String sav = makeSave(2, 3, "dude test 0 0 1.0 0.1 1", "fairy fairy 2 0 1.0 0.3", "tree tree 2 1 0.1 0.7 100");
+        List<String> eventEntities = VirtualWorld.headlessMain(new String[]{"-string", sav}, 10.0);
+        List<String> lazyEntities = VirtualWorld.headlessMain(new String[]{"-lazyanimation", "-string", sav}, 10.0);
+
+        assertEquals(Set.copyOf(eventEntities), Set.copyOf(lazyEntities));
+        assertTrue(lazyEntities.stream().anyMatch(entity -> entity.startsWith("tree 2 1 ")));
+    }
+
+    @Test
+    public void testFlowFieldPathing() {
+        String sav = makeSave(5, 4,
+                "dude test 0 0 1.0 100.0 1",
+                "water  2 0",
+                "water  0 2",
+                "water  1 2",
+                "water  1 3",
+                "water  1 4", "stump stump 2 1",
+                "tree tree 2 2 0.1 100.0 1",
+                "stump stump 2 3",
+                "water  3 3",
+                "house  2 4");
+        List<String> searchEntities = VirtualWorld.headlessMain(new String[]{"-string", sav}, 7);
+        List<String> flowEntities = VirtualWorld.headlessMain(new String[]{"-flowfield", "-string", sav}, 7);
+
+        assertEquals(Set.copyOf(searchEntities), Set.copyOf(flowEntities));
+    }
+
+    @Test
+    public void testFlowFieldUnreachableTarget() {
+        // The closest stump is walled in, so only the farther one can be reached
+        String sav = makeSave(3, 5, "fairy test 2 1 1.0 100.0", "water  0 0", "water  1 1", "water  0 2", "stump  0 1", "stump  4 2");
+        List<String> searchEntities = VirtualWorld.headlessMain(new String[]{"-string", sav}, 5);
+        List<String> flowEntities = VirtualWorld.headlessMain(new String[]{"-flowfield", "-string", sav}, 5);
+
+        assertTrue(searchEntities.stream().anyMatch("test 2 1 0"::equals));
+        assertTrue(flowEntities.stream().anyMatch("test 3 2 0"::equals));
+        assertTrue(flowEntities.stream().anyMatch(entity -> entity.startsWith("sapling_ 4 2 ")));
+    }
+
+    @Test
+    public void testFlowFieldAdjacentTarget() {
+        // The stump already within reach wins over one at the end of a path
+        String sav = makeSave(4, 4, "fairy test 0 0 1.0 100.0", "stump  1 0", "stump  0 3");
+        List<String> entities = VirtualWorld.headlessMain(new String[]{"-flowfield", "-string", sav}, 1.5);
+
+        assertTrue(entities.stream().anyMatch(entity -> entity.startsWith("sapling_ 1 0 ")));
+        assertTrue(entities.stream().anyMatch("test 0 0 0"::equals));
+    }
+
+    @Test
+    public void testFlowFieldBoxedInAdjacentTarget() {
+        // The fairy can't step anywhere, but the stump next to it is still within reach
+        String sav = makeSave(3, 3, "fairy test 0 0 1.0 100.0", "stump  1 0", "house  0 1");
+        List<String> entities = VirtualWorld.headlessMain(new String[]{"-flowfield", "-string", sav}, 1.5);
+
+        assertTrue(entities.stream().anyMatch(entity -> entity.startsWith("sapling_ 1 0 ")));
+    }
+
+    @Test
+    public void testConnectivityPruning() {
+        // The closest stump is walled in, so it is skipped for the farther one
+        String sav = makeSave(3, 5, "fairy test 2 1 1.0 100.0", "water  0 0", "water  1 1", "water  0 2", "stump  0 1", "stump  4 2");
+        List<String> entities = VirtualWorld.headlessMain(new String[]{"-connectivity", "-string", sav}, 5);
+
+        assertTrue(entities.stream().anyMatch("test 3 2 0"::equals));
+        assertTrue(entities.stream().anyMatch(entity -> entity.startsWith("sapling_ 4 2 ")));
+    }
+
+    @Test
+    public void testReachableTargetSearch() {
+        // The stump on the left is nearer, but the one on the right has the shorter path
+        String sav = makeSave(5, 8, "fairy test 3 0 1.0 100.0", "water  2 0", "water  2 1", "water  2 2", "water  2 3", "stump  0 0", "stump  7 0");
+        List<String> searchEntities = VirtualWorld.headlessMain(new String[]{"-string", sav}, 5);
+        List<String> reachableEntities = VirtualWorld.headlessMain(new String[]{"-reachable", "-string", sav}, 5);
+
+        assertTrue(searchEntities.stream().anyMatch("test 2 4 0"::equals));
+        assertTrue(reachableEntities.stream().anyMatch(entity -> entity.startsWith("sapling_ 7 0 ")));
+    }
+
+    @Test
+    public void testTimeSlicedPathingHeadless() {
+        // A headless run is one long update, so the budget has to be refilled as simulated time passes
+        List<String> saveEntities = new ArrayList<>();
+        for (int y = 0; y < 39; y++) {
+            saveEntities.add("water  20 " + y);
+        }
+        for (int y = 2; y < 40; y += 7) {
+            saveEntities.add("fairy f" + y + " 5 " + y + " 0.5 100.0");
+            saveEntities.add("stump s 35 " + y);
+        }
+        String sav = makeSave(40, 40, saveEntities.toArray(new String[0]));
+
+        for (String[] args : List.of(new String[]{"-string", sav}, new String[]{"-timesliced", "-string", sav})) {
+            List<String> entities = VirtualWorld.headlessMain(args, 200);
+            assertEquals(6, entities.stream().filter(entity -> entity.contains("sapling_s ")).count());
+        }
+    }
+
+    @Test
+    public void testParallelPathing() {
+        // Two fairies on the same schedule head for separate stumps without getting in each other's way
+        String sav = makeSave(5, 9, "fairy a 0 0 1.0 100.0", "fairy b 8 4 1.0 100.0", "stump  3 0", "stump  5 4");
+        List<String> serialEntities = VirtualWorld.headlessMain(new String[]{"-string", sav}, 4);
+        List<String> parallelEntities = VirtualWorld.headlessMain(new String[]{"-parallel", "-string", sav}, 4);
+
+        assertEquals(Set.copyOf(serialEntities), Set.copyOf(parallelEntities));
+        assertTrue(parallelEntities.stream().anyMatch(entity -> entity.startsWith("sapling_ 3 0 ")));
+        assertTrue(parallelEntities.stream().anyMatch(entity -> entity.startsWith("sapling_ 5 4 ")));
+    }
+
+    @Test
+    public void testBackgroundListener() {
+        World world = new World(3, 3);
+        List<PImage> images = List.of();
+        List<Point> changes = new ArrayList<>();
+        world.addBackgroundListener((x, y) -> changes.add(new Point(x, y)));
+
+        // Only changes of the tile notify, not setting an equal background again
+        world.setBackgroundCell(new Point(1, 2), new Background("grass", images, 0));
+        world.setBackgroundCell(new Point(1, 2), new Background("grass", images, 0));
+        world.setBackgroundCell(new Point(1, 2), new Background("road", images, 0));
+        world.setBackgroundCell(new Point(0, 1), null);
+        world.setBackgroundCell(new Point(1, 2), null);
+        world.setBackgroundCell(new Point(1, 2), null);
+        assertEquals(List.of(new Point(1, 2), new Point(1, 2), new Point(1, 2)), changes);
+    }
+
+    @Test
+    public void testEntityRegionQuery() {
+        World world = new World(4, 4);
+        for (Point position : List.of(new Point(3, 3), new Point(1, 0), new Point(0, 2), new Point(2, 2), new Point(3, 0))) {
+            world.addEntity(new Stump(position.x + " " + position.y, position, List.of()));
+        }
+
+        // The rectangle hangs over the left and bottom edges; entities come back row by row
+        List<String> ids = new ArrayList<>();
+        world.forEachEntityIn(-1, 0, 4, 6, entity -> ids.add(entity.getId()));
+        assertEquals(List.of("1 0", "0 2", "2 2"), ids);
+    }
+
+    @Test
+    public void testImageAtlas() {
+        PImage red = ImageLibrary.createImageColored(2, 1, 0xffff0000);
+        PImage wide = ImageLibrary.createImageColored(ImageAtlas.MAX_WIDTH / 3, 2, 0xff00ff00);
+        ImageAtlas atlas = new ImageAtlas(List.of(red, wide, red), 3);
+
+        // The wide image doesn't fit beside the first, so it starts a row below it
+        assertEquals(new ImageAtlas.Region(0, 0, 6, 3), atlas.regionOf(red));
+        assertEquals(new ImageAtlas.Region(0, 3, ImageAtlas.MAX_WIDTH / 3 * 3, 6), atlas.regionOf(wide));
+        assertEquals(0xffff0000, atlas.getImage().get(5, 2));
+        assertEquals(0xff00ff00, atlas.getImage().get(0, 8));
+    }
+
+    @Test
+    public void testSimulationThreadSnapshots() throws InterruptedException {
+        World world = new World(3, 4);
+        PImage image = ImageLibrary.createImageColored(1, 1, 0);
+        world.addEntity(new Stump("stump", new Point(2, 1), List.of(image)));
+        SimulationThread simulation = new SimulationThread(world, () -> {}, 2, 3);
+        simulation.start(1, 1);
+        try {
+            RenderSnapshot first = simulation.takeSnapshot();
+            assertEquals(1, first.getEntityCount());
+            assertEquals(2, first.getEntityX(0));
+            assertSame(image, first.getEntityImage(0));
+
+            // Changes submitted from this thread show up in a later snapshot, tile and all
+            Background road = new Background("road", List.of(), 0);
+            simulation.submit(() -> world.setBackgroundCell(new Point(3, 2), road));
+            RenderSnapshot snapshot = first;
+            for (int i = 0; i < 200 && snapshot.tileAt(2, 1) == null; i++) {
+                Thread.sleep(5);
+                snapshot = simulation.takeSnapshot();
+            }
+            assertEquals(road, snapshot.tileAt(2, 1));
+            assertEquals(1, snapshot.getChangedTileCount());
+            assertEquals(3, snapshot.getChangedTileX(0));
+            assertEquals(2, snapshot.getChangedTileY(0));
+        } finally {
+            simulation.stop();
+        }
+    }
+
+    @Test
+    public void testFrameBudget() {
+        for (FrameBudget.Policy policy : FrameBudget.Policy.values()) {
+            EventScheduler scheduler = new EventScheduler();
+            Fairy fairy = new Fairy("fairy", new Point(0, 0), List.of(ImageLibrary.createImageColored(1, 1, 0)), 0.125, 1.0);
+            scheduler.scheduleAnimation(fairy, 0, 0.125);
+            FrameBudget budget = new FrameBudget(1.0, 4, policy);
+
+            // Two seconds behind, the first frame stops after four animations
+            budget.update(scheduler, 2.0);
+            assertEquals(0.5, scheduler.getCurrentTime());
+            assertEquals(1, budget.getLateFrames());
+
+            if (policy == FrameBudget.Policy.CATCH_UP) {
+                assertEquals(1.5, budget.getLag());
+                for (int i = 0; i < 3; i++) {
+                    budget.update(scheduler, 2.0);
+                }
+                assertEquals(2.0, scheduler.getCurrentTime());
+                assertEquals(3, budget.getLateFrames());
+            } else {
+                assertEquals(0, budget.getLag());
+                assertEquals(1.5, budget.getDroppedTime());
+                budget.update(scheduler, 2.25);
+                assertEquals(0.75, scheduler.getCurrentTime());
+                assertEquals(1, budget.getLateFrames());
+            }
+            assertEquals(0, budget.getLag());
+        }
+    }
+
+    @Test
+    public void testCooperativePathing() {
+        // Fairies that reserve their steps still reach separate stumps as soon as they would otherwise
+        String sav = makeSave(5, 9, "fairy a 0 0 1.0 100.0", "fairy b 8 4 1.0 100.0", "stump  3 0", "stump  5 4");
+        List<String> entities = VirtualWorld.headlessMain(new String[]{"-cooperative", "-string", sav}, 4);
+
+        assertTrue(entities.stream().anyMatch(entity -> entity.startsWith("sapling_ 3 0 ")));
+        assertTrue(entities.stream().anyMatch(entity -> entity.startsWith("sapling_ 5 4 ")));
+    }
+
     @Test
     public void testDudeAnimation() {
         String sav = makeSave(1, 1, "dude test 0 0 1.0 0.1 1");
@@ -259,4 +591,39 @@ public class WorldTests {
         assertEquals(1, entities.size());
         assertEquals("stump_test 0 0 0", entities.get(0));
     }
+
+    @Test
+    public void testParkedTrees() {
+        ImageLibrary imageLibrary = new ImageLibrary(ImageLibrary.createImageColored(1, 1, 0));
+        World world = new World(2, 6);
+        Dude dude = new Dude("dude", new Point(0, 1), List.of(), 100.0, 1.0, 0, 1);
+        Tree near = new Tree("near", new Point(2, 1), List.of(), 0.1, 1.0, 2);
+        Tree idle = new Tree("idle", new Point(5, 0), List.of(), 0.1, 1.0, 100);
+        Stump stump = new Stump("stump", new Point(5, 1), List.of());
+        for (Entity entity : List.of(dude, near, idle, stump, new House("house", new Point(0, 0), List.of()))) {
+            world.addEntity(entity);
+        }
+        EventScheduler scheduler = new EventScheduler();
+        scheduler.setLazyAnimation(true);
+        for (Actions actor : List.of(dude, near, idle)) {
+            actor.scheduleActions(scheduler, world, imageLibrary);
+        }
+
+        // After their first behavior, trees with health left wait without any events
+        scheduler.updateOnTime(1.5);
+        assertFalse(scheduler.hasPendingEvents(near));
+        assertFalse(scheduler.hasPendingEvents(idle));
+        assertFalse(scheduler.hasPendingEvents(stump));
+        assertTrue(scheduler.hasPendingEvents(dude));
+
+        // Chopping wakes the neighboring tree, which turns into a stump
+        scheduler.updateOnTime(4.5);
+        assertTrue(world.log().contains("stump_near 2 1 0"));
+
+        // Same outcome as trees that check their health every behavior period
+        scheduler.updateOnTime(14.0);
+        assertEquals(Set.of("stump_near 2 1 0", "idle 5 0 200", "dude 4 0 0", "stump 5 1 0", "house 0 0 0"), Set.copyOf(world.log()));
+        assertEquals(98, idle.getHealth());
+        assertFalse(scheduler.hasPendingEvents(idle));
+    }
 }
\ No newline at end of file
@@ -1,8 +1,20 @@
 import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+import processing.core.PImage;
 
-import java.util.Optional;
+import java.util.Arrays;
 
-public final class WorldView {
+/**
+ * Draws the visible part of a world.
+ * Backgrounds change rarely, so they are drawn into an offscreen buffer that is copied to the screen in one
+ * call per frame. Only tiles the world reports as changed are redrawn, and scrolling shifts the buffer and
+ * draws just the uncovered rows and columns.
+ * Images found in the image atlas, if one is set, are drawn from their pre-scaled region of it instead of being
+ * scaled on every draw.
+ * When a simulation thread updates the world, the view draws the snapshots it publishes instead of the world.
+ */
+public final class WorldView implements BackgroundListener {
     private PApplet screen;
     private int scale;
     private World world;
@@ -10,6 +22,29 @@ public final class WorldView {
     private int tileHeight;
     private Viewport viewport;
 
+    /** Pre-scaled images to draw from, or null to scale images as they are drawn. */
+    private ImageAtlas imageAtlas;
+
+    /** Backgrounds of the viewport as last drawn, or null before the first frame. */
+    private PGraphics backgroundBuffer;
+
+    /** Buffer the backgrounds are shifted into when the viewport scrolls, then swapped with 'backgroundBuffer'. */
+    private PGraphics scrollBuffer;
+
+    /** Viewport position 'backgroundBuffer' was drawn for. */
+    private int bufferCol;
+    private int bufferRow;
+
+    /** World coordinates of tiles changed since the last frame, as x, y pairs. Only the first 'dirtyTileCount' are valid. */
+    private int[] dirtyTiles;
+    private int dirtyTileCount;
+
+    /** Snapshot being drawn instead of the world, or null. */
+    private RenderSnapshot snapshot;
+
+    /** Snapshot drawn last, whose changed tiles have been applied to the background buffer. */
+    private RenderSnapshot lastSnapshot;
+
     public WorldView(int numRows, int numCols, PApplet screen, int scale, World world, int tileWidth, int tileHeight) {
         this.screen = screen;
         this.scale = scale;
@@ -17,6 +52,9 @@ public final class WorldView {
         this.tileWidth = tileWidth;
         this.tileHeight = tileHeight;
         this.viewport = new Viewport(numRows, numCols);
+        this.dirtyTiles = new int[16];
+        this.dirtyTileCount = 0;
+        world.addBackgroundListener(this);
     }
 
     public void shiftView(int colDelta, int rowDelta) {
@@ -31,33 +69,182 @@ public final class WorldView {
         this.drawEntities();
     }
 
+    /**
+     * Draws a snapshot published by a simulation thread, at the viewport position it was captured for.
+     * The view must not be listening to the world's backgrounds while another thread changes them.
+     */
+    public void drawSnapshot(RenderSnapshot snapshot) {
+        this.snapshot = snapshot;
+        if (snapshot != lastSnapshot) {
+            for (int i = 0; i < snapshot.getChangedTileCount(); i++) {
+                markDirty(snapshot.getChangedTileX(i), snapshot.getChangedTileY(i));
+            }
+            lastSnapshot = snapshot;
+        }
+        drawBackground();
+        for (int i = 0; i < snapshot.getEntityCount(); i++) {
+            drawImage(
+                    screen.g,
+                    snapshot.getEntityImage(i),
+                    (snapshot.getEntityX(i) - snapshot.getCol()) * tileWidth * scale,
+                    (snapshot.getEntityY(i) - snapshot.getRow()) * tileHeight * scale
+            );
+        }
+        this.snapshot = null;
+    }
+
+    /** Brings the background buffer up to date with the world and the viewport, then copies it to the screen. */
     public void drawBackground() {
-        for (int row = 0; row < viewport.getNumRows(); row++) {
-            for (int col = 0; col < viewport.getNumCols(); col++) {
-                Point worldPoint = viewport.viewportToWorld(col, row);
-                Optional<Background> background = world.getBackground(worldPoint);
-                if (background.isPresent()) {
-                    screen.image(background.get().getImage(), col * tileWidth * scale, row * tileHeight * scale, tileWidth * scale, tileHeight * scale);
+        int numRows = viewport.getNumRows();
+        int numCols = viewport.getNumCols();
+        if (backgroundBuffer == null) {
+            backgroundBuffer = screen.createGraphics(numCols * tileWidth * scale, numRows * tileHeight * scale);
+            scrollBuffer = screen.createGraphics(numCols * tileWidth * scale, numRows * tileHeight * scale);
+            // Scale pixelated like the screen
+            backgroundBuffer.noSmooth();
+            scrollBuffer.noSmooth();
+            backgroundBuffer.beginDraw();
+            drawTiles(backgroundBuffer, 0, 0, numCols, numRows);
+            backgroundBuffer.endDraw();
+            bufferCol = originCol();
+            bufferRow = originRow();
+            dirtyTileCount = 0;
+        }
+
+        if (originCol() != bufferCol || originRow() != bufferRow) {
+            scrollBackground();
+        }
+
+        if (dirtyTileCount > 0) {
+            backgroundBuffer.beginDraw();
+            for (int i = 0; i < dirtyTileCount; i += 2) {
+                int x = dirtyTiles[i];
+                int y = dirtyTiles[i + 1];
+                if (x >= bufferCol && x < bufferCol + numCols && y >= bufferRow && y < bufferRow + numRows) {
+                    eraseTile(backgroundBuffer, x - bufferCol, y - bufferRow);
+                    drawTile(backgroundBuffer, x - bufferCol, y - bufferRow);
                 }
             }
+            backgroundBuffer.endDraw();
+            dirtyTileCount = 0;
         }
+
+        screen.image(backgroundBuffer, 0, 0);
     }
 
-    public void drawEntities() {
-        for (Entity entity : world.getEntities()) {
-            Point pos = entity.getPosition();
-
-            if (viewport.contains(pos)) {
-                Point viewPoint = viewport.worldToViewport(pos.x, pos.y);
-
-                screen.image(
-                        entity.getImages().get(entity.getImageIndex() % entity.getImages().size()),
-                        viewPoint.x * tileWidth * scale,
-                        viewPoint.y * tileHeight * scale,
-                        tileWidth * scale,
-                        tileHeight * scale
-                );
+    @Override
+    public void backgroundChanged(int x, int y) {
+        markDirty(x, y);
+    }
+
+    /** Records a changed background tile, to be redrawn before the next frame. */
+    private void markDirty(int x, int y) {
+        if (backgroundBuffer == null) {
+            // The whole buffer is drawn on the first frame anyway
+            return;
+        }
+        if (dirtyTileCount == dirtyTiles.length) {
+            dirtyTiles = Arrays.copyOf(dirtyTiles, dirtyTileCount * 2);
+        }
+        dirtyTiles[dirtyTileCount++] = x;
+        dirtyTiles[dirtyTileCount++] = y;
+    }
+
+    /** Redraws the background buffer for the new viewport position, reusing the part that is still visible. */
+    private void scrollBackground() {
+        int numRows = viewport.getNumRows();
+        int numCols = viewport.getNumCols();
+        int colDelta = originCol() - bufferCol;
+        int rowDelta = originRow() - bufferRow;
+
+        scrollBuffer.beginDraw();
+        scrollBuffer.clear();
+        if (Math.abs(colDelta) < numCols && Math.abs(rowDelta) < numRows) {
+            // Copying to the screen cleared the buffer's modified flag, which would leave this renderer's cached copy stale
+            backgroundBuffer.setModified();
+            scrollBuffer.image(backgroundBuffer, -colDelta * tileWidth * scale, -rowDelta * tileHeight * scale);
+            if (colDelta > 0) {
+                drawTiles(scrollBuffer, numCols - colDelta, 0, numCols, numRows);
+            } else if (colDelta < 0) {
+                drawTiles(scrollBuffer, 0, 0, -colDelta, numRows);
+            }
+            if (rowDelta > 0) {
+                drawTiles(scrollBuffer, 0, numRows - rowDelta, numCols, numRows);
+            } else if (rowDelta < 0) {
+                drawTiles(scrollBuffer, 0, 0, numCols, -rowDelta);
             }
+        } else {
+            drawTiles(scrollBuffer, 0, 0, numCols, numRows);
+        }
+        scrollBuffer.endDraw();
+
+        PGraphics swap = backgroundBuffer;
+        backgroundBuffer = scrollBuffer;
+        scrollBuffer = swap;
+        bufferCol = originCol();
+        bufferRow = originRow();
+    }
+
+    /** Draws the tiles of a rectangle of viewport columns and rows into a buffer whose area there is clear. */
+    private void drawTiles(PGraphics buffer, int fromCol, int fromRow, int toCol, int toRow) {
+        for (int row = fromRow; row < toRow; row++) {
+            for (int col = fromCol; col < toCol; col++) {
+                drawTile(buffer, col, row);
+            }
+        }
+    }
+
+    private void drawTile(PGraphics buffer, int col, int row) {
+        Background background = snapshot != null
+                ? snapshot.tileAt(col, row)
+                : world.getTile(world.tileIdAt(viewport.getCol() + col, viewport.getRow() + row));
+        if (background != null) {
+            drawImage(buffer, background.getImage(), col * tileWidth * scale, row * tileHeight * scale);
+        }
+    }
+
+    /** Makes a tile of a buffer transparent, so a tile without a background doesn't keep the old one. */
+    private void eraseTile(PGraphics buffer, int col, int row) {
+        buffer.blendMode(PConstants.REPLACE);
+        buffer.noStroke();
+        buffer.fill(0, 0);
+        buffer.rect(col * tileWidth * scale, row * tileHeight * scale, tileWidth * scale, tileHeight * scale);
+        buffer.blendMode(PConstants.BLEND);
+    }
+
+    /** Returns the world column drawn at the left edge: the snapshot's, or else the viewport's. */
+    private int originCol() {
+        return snapshot != null ? snapshot.getCol() : viewport.getCol();
+    }
+
+    /** Returns the world row drawn at the top edge: the snapshot's, or else the viewport's. */
+    private int originRow() {
+        return snapshot != null ? snapshot.getRow() : viewport.getRow();
+    }
+
+    /** Draws the entities within the viewport in row-major order, looking only at the visible locations. */
+    public void drawEntities() {
+        world.forEachEntityIn(viewport.getCol(), viewport.getRow(), viewport.getNumCols(), viewport.getNumRows(), this::drawEntity);
+    }
+
+    private void drawEntity(Entity entity) {
+        Point pos = entity.getPosition();
+        drawImage(
+                screen.g,
+                entity.getImages().get(entity.getImageIndex() % entity.getImages().size()),
+                (pos.x - viewport.getCol()) * tileWidth * scale,
+                (pos.y - viewport.getRow()) * tileHeight * scale
+        );
+    }
+
+    /** Draws an image over one tile, from its region of the atlas when it has one. */
+    private void drawImage(PGraphics target, PImage image, int x, int y) {
+        ImageAtlas.Region region = imageAtlas != null ? imageAtlas.regionOf(image) : null;
+        if (region != null) {
+            target.image(imageAtlas.getImage(), x, y, tileWidth * scale, tileHeight * scale,
+                    region.x(), region.y(), region.x() + region.width(), region.y() + region.height());
+        } else {
+            target.image(image, x, y, tileWidth * scale, tileHeight * scale);
         }
     }
 
@@ -67,4 +254,13 @@ public final class WorldView {
     public Viewport getViewport() {
         return viewport;
     }
+
+    public ImageAtlas getImageAtlas() {
+        return imageAtlas;
+    }
+
+    /** Draws images from the given atlas where it has them, or scales every image as it is drawn if null. */
+    public void setImageAtlas(ImageAtlas imageAtlas) {
+        this.imageAtlas = imageAtlas;
+    }
 }